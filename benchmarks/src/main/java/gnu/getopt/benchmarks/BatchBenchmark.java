@@ -0,0 +1,73 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.BatchParser;
+import gnu.getopt.OptionSchema;
+import gnu.getopt.ParsedArgs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A batch of short command lines, parsed one OptionSchema.parse() call
+ * after the other and by a BatchParser on all cores.  Each result is
+ * reduced to its number of occurrences, as a classifier would reduce it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+	@Param({"10000", "1000000"})
+	public int lineCount;
+
+	private OptionSchema schema;
+	private BatchParser batchParser;
+	private List<String[]> lines;
+
+	@Setup
+	public void setup() {
+		this.schema = OptionSchema.createGnu("bench", Fixtures.OPTSTRING, Fixtures.longOptions(300));
+		this.batchParser = new BatchParser(this.schema);
+		this.lines = new ArrayList<>(this.lineCount);
+		for (int i = 0; i < this.lineCount; i++) {
+			switch (i % 3) {
+			case 0:
+				this.lines.add(Fixtures.shortClusters(8));
+				break;
+			case 1:
+				this.lines.add(Fixtures.longExact(8, 300));
+				break;
+			default:
+				this.lines.add(Fixtures.interleaved(8));
+				break;
+			}
+		}
+	}
+
+	@Benchmark
+	public void sequential(final Blackhole blackhole) {
+		for (final String[] line : this.lines) { blackhole.consume(this.schema.parse(line).size()); }
+	}
+
+	@Benchmark
+	public void batch(final Blackhole blackhole) {
+		blackhole.consume(this.batchParser.parseAll(this.lines, ParsedArgs::size));
+	}
+}
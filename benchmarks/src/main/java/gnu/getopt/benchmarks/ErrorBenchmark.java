@@ -0,0 +1,63 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.Getopt;
+import gnu.getopt.OptionSchema;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The error paths: invalid short options, unrecognized and ambiguous long
+ * options and a missing argument at the end.  With opterr on, the messages are
+ * formatted and handed to a Blackhole instead of being printed, so that
+ * the benchmark measures the parser rather than the terminal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorBenchmark {
+
+	@Param({"16", "256", "4096"})
+	public int argvSize;
+
+	@Param({"16", "300"})
+	public int optionCount;
+
+	private String[] argv;
+	private OptionSchema schema;
+
+	@Setup
+	public void setup() {
+		this.argv = Fixtures.errors(this.argvSize);
+		this.schema = OptionSchema.createGnu("bench", Fixtures.OPTSTRING, Fixtures.longOptions(this.optionCount));
+	}
+
+	@Benchmark
+	public void opterrOn(final Blackhole blackhole) {
+		final Getopt g = this.schema.parser(this.argv.clone());
+		g.setDiagnosticSink(diagnostic -> blackhole.consume(diagnostic.getMessage()));
+		Fixtures.drain(g, blackhole);
+	}
+
+	@Benchmark
+	public void opterrOff(final Blackhole blackhole) {
+		final Getopt g = this.schema.parser(this.argv.clone());
+		g.setOpterr(false);
+		Fixtures.drain(g, blackhole);
+	}
+}
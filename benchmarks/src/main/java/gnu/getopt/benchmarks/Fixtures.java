@@ -0,0 +1,117 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.Getopt;
+import gnu.getopt.LongOpt;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Option tables and argument vectors shared by the benchmarks.
+ */
+final class Fixtures {
+
+	/**
+	 * The short options used by every benchmark.  'o' requires an argument,
+	 * 'p' takes an optional one and "W;" enables "-W name" long options.
+	 */
+	static final String OPTSTRING = "abcdefghijklmno:p::W;";
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Long options named "opt0-name", "opt1-name", ...  The names differ
+	 * before the '-', so "optN-n" is an unambiguous abbreviation of each.
+	 */
+	static LongOpt[] longOptions(final int count) {
+		final LongOpt[] longOptions = new LongOpt[count];
+		for (int i = 0; i < count; i++) {
+			longOptions[i] = new LongOpt(name(i), LongOpt.REQUIRED_ARGUMENT, null, 256 + i);
+		}
+		return longOptions;
+	}
+
+	static String name(final int i) {
+		return "opt" + i + "-name";
+	}
+
+	static String[] shortClusters(final int size) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = i % 4 == 3 ? "-ofile" + i : "-abcdefghijklmn"; }
+		return argv;
+	}
+
+	static String[] longExact(final int size, final int optionCount) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = "--" + name(i * 7 % optionCount) + "=value" + i; }
+		return argv;
+	}
+
+	static String[] longAbbreviated(final int size, final int optionCount) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = "--opt" + i * 7 % optionCount + "-n=value" + i; }
+		return argv;
+	}
+
+	static String[] wOptions(final int size, final int optionCount) {
+		final String[] argv = new String[size];
+		for (int i = 0; i + 1 < size; i += 2) {
+			argv[i] = "-W";
+			argv[i + 1] = name(i * 7 % optionCount) + "=value" + i;
+		}
+		if (size % 2 == 1) { argv[size - 1] = "-a"; }
+		return argv;
+	}
+
+	/**
+	 * Alternating operands and options, the worst case for PERMUTE.
+	 */
+	static String[] interleaved(final int size) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = i % 2 == 0 ? "file" + i : "-a"; }
+		return argv;
+	}
+
+	static String[] msDos(final int size, final int optionCount) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = "//" + name(i * 7 % optionCount).toUpperCase() + ":value" + i; }
+		return argv;
+	}
+
+	static String[] msPowerShell(final int size, final int optionCount) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size; i++) { argv[i] = "-Opt" + i * 7 % optionCount + "-Name=value" + i; }
+		return argv;
+	}
+
+	/**
+	 * Invalid short options and unrecognized and ambiguous long options,
+	 * ending with an option that is missing its argument.  Getopt takes
+	 * any element after "-o" as its argument, so the missing argument can
+	 * only come last.
+	 */
+	static String[] errors(final int size) {
+		final String[] argv = new String[size];
+		for (int i = 0; i < size - 1; i++) {
+			switch (i % 3) {
+				case 0: argv[i] = "-xyz"; break;
+				case 1: argv[i] = "--unknown-option"; break;
+				default: argv[i] = "--opt"; break;
+			}
+		}
+		argv[size - 1] = "-o";
+		return argv;
+	}
+
+	/**
+	 * Run the getopt() loop to its end.
+	 */
+	static void drain(final Getopt g, final Blackhole blackhole) {
+		int c;
+		while ((c = g.getopt()) != -1) {
+			blackhole.consume(c);
+			blackhole.consume(g.getOptarg());
+		}
+		blackhole.consume(g.getOptind());
+	}
+}
@@ -0,0 +1,123 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.Completer;
+import gnu.getopt.Getopt;
+import gnu.getopt.LongOpt;
+import gnu.getopt.LongOptionDictionary;
+import gnu.getopt.OptionSchema;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Long options given in full, abbreviated, through "-W name" and with the
+ * case-insensitive MS-DOS and PowerShell conventions, against option
+ * tables of several sizes, looked up through the schema's own index or a
+ * LongOptionDictionary, and completion of a long option prefix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongOptionBenchmark {
+
+	@Param({"16", "256", "4096"})
+	public int argvSize;
+
+	@Param({"16", "300", "3000"})
+	public int optionCount;
+
+	private LongOpt[] longOptions;
+	private OptionSchema gnu;
+	private OptionSchema dictionary;
+	private OptionSchema msDos;
+	private OptionSchema msPowerShell;
+	private Completer completer;
+	private String[] exact;
+	private String[] completed;
+	private String[] abbreviated;
+	private String[] wOptions;
+	private String[] msDosArgv;
+	private String[] msPowerShellArgv;
+
+	@Setup
+	public void setup() {
+		this.longOptions = Fixtures.longOptions(this.optionCount);
+		this.gnu = OptionSchema.createGnu("bench", Fixtures.OPTSTRING, this.longOptions);
+		this.dictionary = OptionSchema.createGnu("bench", Fixtures.OPTSTRING).withLongOptionDictionary(new LongOptionDictionary(this.longOptions, false));
+		this.msDos = OptionSchema.createMsDos("bench", Fixtures.OPTSTRING, this.longOptions);
+		this.msPowerShell = OptionSchema.createMsPowerShell("bench", Fixtures.OPTSTRING, this.longOptions);
+		this.completer = Completer.create(this.gnu);
+		this.exact = Fixtures.longExact(this.argvSize, this.optionCount);
+		this.completed = this.exact.clone();
+		this.completed[this.completed.length - 1] = "--opt1";
+		this.abbreviated = Fixtures.longAbbreviated(this.argvSize, this.optionCount);
+		this.wOptions = Fixtures.wOptions(this.argvSize, this.optionCount);
+		this.msDosArgv = Fixtures.msDos(this.argvSize, this.optionCount);
+		this.msPowerShellArgv = Fixtures.msPowerShell(this.argvSize, this.optionCount);
+	}
+
+	@Benchmark
+	public void exactCreateGnu(final Blackhole blackhole) {
+		Fixtures.drain(Getopt.createGnu("bench", this.exact.clone(), Fixtures.OPTSTRING, this.longOptions), blackhole);
+	}
+
+	@Benchmark
+	public void exact(final Blackhole blackhole) {
+		Fixtures.drain(this.gnu.parser(this.exact.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void abbreviated(final Blackhole blackhole) {
+		Fixtures.drain(this.gnu.parser(this.abbreviated.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void exactDictionary(final Blackhole blackhole) {
+		Fixtures.drain(this.dictionary.parser(this.exact.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void abbreviatedDictionary(final Blackhole blackhole) {
+		Fixtures.drain(this.dictionary.parser(this.abbreviated.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void wOption(final Blackhole blackhole) {
+		Fixtures.drain(this.gnu.parser(this.wOptions.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void msDos(final Blackhole blackhole) {
+		Fixtures.drain(this.msDos.parser(this.msDosArgv.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void msPowerShell(final Blackhole blackhole) {
+		Fixtures.drain(this.msPowerShell.parser(this.msPowerShellArgv.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void parsedArgs(final Blackhole blackhole) {
+		blackhole.consume(this.gnu.parse(this.exact));
+	}
+
+	@Benchmark
+	public void completion(final Blackhole blackhole) {
+		blackhole.consume(this.completer.complete(this.completed, this.completed.length - 1));
+	}
+}
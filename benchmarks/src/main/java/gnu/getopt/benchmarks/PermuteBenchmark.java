@@ -0,0 +1,65 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.Getopt;
+import gnu.getopt.OptionSchema;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Operands interleaved with options ("file0 -a file2 -a ..."), which
+ * PERMUTE mode has to move behind the options, both after every option and
+ * deferred to the end of the scan.  RETURN_IN_ORDER parses the same argv
+ * without any permutation and serves as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermuteBenchmark {
+
+	@Param({"16", "256", "4096", "65536"})
+	public int argvSize;
+
+	private String[] argv;
+	private OptionSchema permute;
+	private OptionSchema returnInOrder;
+
+	@Setup
+	public void setup() {
+		this.argv = Fixtures.interleaved(this.argvSize);
+		this.permute = OptionSchema.createGnu("bench", Fixtures.OPTSTRING);
+		this.returnInOrder = OptionSchema.createGnu("bench", "-" + Fixtures.OPTSTRING);
+	}
+
+	@Benchmark
+	public void permute(final Blackhole blackhole) {
+		Fixtures.drain(this.permute.parser(this.argv.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void deferredPermute(final Blackhole blackhole) {
+		final Getopt g = this.permute.parser(this.argv.clone());
+		g.setDeferredPermutation(true);
+		Fixtures.drain(g, blackhole);
+	}
+
+	@Benchmark
+	public void returnInOrder(final Blackhole blackhole) {
+		Fixtures.drain(this.returnInOrder.parser(this.argv.clone()), blackhole);
+	}
+}
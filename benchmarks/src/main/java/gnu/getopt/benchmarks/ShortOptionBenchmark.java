@@ -0,0 +1,62 @@
+package gnu.getopt.benchmarks;
+
+import gnu.getopt.Getopt;
+import gnu.getopt.OptionSchema;
+import gnu.getopt.ParseMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Clustered short options such as "-abcdefghijklmn" and "-ofile", with
+ * and without a ParseMetrics listener.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortOptionBenchmark {
+
+	@Param({"16", "256", "4096"})
+	public int argvSize;
+
+	private String[] argv;
+	private OptionSchema schema;
+	private OptionSchema instrumented;
+
+	@Setup
+	public void setup() {
+		this.argv = Fixtures.shortClusters(this.argvSize);
+		this.schema = OptionSchema.createGnu("bench", Fixtures.OPTSTRING);
+		this.instrumented = this.schema.withParseListener(new ParseMetrics());
+	}
+
+	@Benchmark
+	public void createGnu(final Blackhole blackhole) {
+		Fixtures.drain(Getopt.createGnu("bench", this.argv.clone(), Fixtures.OPTSTRING), blackhole);
+	}
+
+	@Benchmark
+	public void compiledSchema(final Blackhole blackhole) {
+		Fixtures.drain(this.schema.parser(this.argv.clone()), blackhole);
+	}
+
+	@Benchmark
+	public void instrumented(final Blackhole blackhole) {
+		Fixtures.drain(this.instrumented.parser(this.argv.clone()), blackhole);
+	}
+}
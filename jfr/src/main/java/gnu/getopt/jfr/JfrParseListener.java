@@ -0,0 +1,62 @@
+package gnu.getopt.jfr;
+
+import gnu.getopt.Diagnostic;
+import gnu.getopt.ParseListener;
+
+/**
+ * A ParseListener that records a ParseEvent ("gnu.getopt.Parse") with
+ * Java Flight Recorder for every completed parse.  The event is only
+ * filled in and committed if a recording has it enabled.  Other events
+ * can be passed on to a second listener, for example a ParseMetrics
+ * object:
+ * <p>
+ * <pre>
+ * OptionSchema schema = OptionSchema.createGnu("testprog", "ab:").withParseListener(new JfrParseListener(metrics));
+ * </pre>
+ */
+public final class JfrParseListener implements ParseListener {
+
+	private static final ParseListener NONE = new ParseListener() {
+	};
+
+	private final ParseListener delegate;
+
+	public JfrParseListener() {
+		this(JfrParseListener.NONE);
+	}
+
+	/**
+	 * @param delegate The listener every event is passed on to
+	 */
+	public JfrParseListener(final ParseListener delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void optionParsed(final int option) {
+		this.delegate.optionParsed(option);
+	}
+
+	@Override
+	public void abbreviationResolved(final int longind) {
+		this.delegate.abbreviationResolved(longind);
+	}
+
+	@Override
+	public void errorFound(final Diagnostic.Kind kind) {
+		this.delegate.errorFound(kind);
+	}
+
+	@Override
+	public void parseCompleted(final int arguments, final int options, final int errors, final long nanos) {
+		final ParseEvent event = new ParseEvent();
+		if (event.isEnabled()) {
+			event.arguments = arguments;
+			event.options = options;
+			event.errors = errors;
+			event.parseTime = nanos;
+			event.commit();
+		}
+		this.delegate.parseCompleted(arguments, options, errors, nanos);
+	}
+}
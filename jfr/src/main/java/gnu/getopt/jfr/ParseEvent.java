@@ -0,0 +1,37 @@
+package gnu.getopt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded by JfrParseListener for every completed parse.
+ */
+@Name("gnu.getopt.Parse")
+@Label("Command Line Parse")
+@Category("getopt")
+@Description("A command line parsed by Getopt")
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+	@Label("Arguments")
+	@Description("Number of arguments scanned")
+	int arguments;
+
+	@Label("Options")
+	@Description("Number of options returned by getopt()")
+	int options;
+
+	@Label("Errors")
+	@Description("Number of errors found")
+	int errors;
+
+	@Label("Parse Time")
+	@Description("Time spent inside getopt()")
+	@Timespan(Timespan.NANOSECONDS)
+	long parseTime;
+}
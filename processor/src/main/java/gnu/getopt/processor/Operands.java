@@ -0,0 +1,15 @@
+package gnu.getopt.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the field that receives the non-option arguments, which must be
+ * a String[] or a java.util.List&lt;String&gt;.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Operands {
+}
@@ -0,0 +1,42 @@
+package gnu.getopt.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an option that is stored in the annotated field.  The field
+ * type decides what the option takes:
+ * <ul>
+ * <li>boolean: no argument, the field is set to true.</li>
+ * <li>int, long, double: a number, parsed with Getopt.getOptargInt(),
+ * getOptargLong() or getOptargDouble().</li>
+ * <li>String, java.nio.file.Path: the argument as is.</li>
+ * <li>An enum type: the name of a constant, in any case and with '-' in
+ * place of '_'.</li>
+ * <li>java.util.List&lt;String&gt;: the argument of every occurrence.</li>
+ * </ul>
+ * Arguments that cannot be converted are reported as diagnostics of kind
+ * INVALID_VALUE.  The field must not be private, static or final.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Option {
+
+	/**
+	 * The short option character, or '\0' for a long option only
+	 */
+	char value() default '\0';
+
+	/**
+	 * The long option name, or "" for a short option only
+	 */
+	String longName() default "";
+
+	/**
+	 * Whether the argument may be omitted, in which case the field keeps
+	 * its value.  Ignored for boolean fields.
+	 */
+	boolean optionalArgument() default false;
+}
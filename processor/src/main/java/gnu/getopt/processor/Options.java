@@ -0,0 +1,29 @@
+package gnu.getopt.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose fields annotated with Option and Operands describe
+ * the command line of a program.  For a class Foo, OptionsProcessor
+ * generates a class FooParser in the same package with a static method
+ * parse(String[] argv, Foo target) that stores the options in argv
+ * directly into the fields of target.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Options {
+
+	/**
+	 * The name of the program, used in error messages
+	 */
+	String progname();
+
+	/**
+	 * Whether long options may also be given with a single '-', as with
+	 * getopt_long_only()
+	 */
+	boolean longOnly() default false;
+}
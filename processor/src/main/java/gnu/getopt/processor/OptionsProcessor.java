@@ -0,0 +1,394 @@
+package gnu.getopt.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a parser class for every class annotated with Options.  The
+ * generated parser compiles its OptionSchema once, in a static
+ * initializer, and runs the getopt() loop of gnu.getopt.Getopt over it, so
+ * it follows exactly the same GNU rules as a hand-written loop.  What is
+ * generated is everything around the loop: a switch on the value returned
+ * by getopt() with one case per option, and conversions and stores
+ * straight into the fields of the target object, without reflection.
+ */
+public final class OptionsProcessor extends AbstractProcessor {
+
+	/**
+	 * The first val given to long options without a short option character
+	 */
+	private static final int FIRST_LONG_VAL = 256;
+
+	/**
+	 * How a field is stored
+	 */
+	private enum Store {
+		FLAG, INT, LONG, DOUBLE, STRING, PATH, ENUM, LIST
+	}
+
+	/**
+	 * One option field
+	 */
+	private static final class Field {
+		final VariableElement element;
+		final Store store;
+		final char shortName;
+		final String longName;
+		final boolean optionalArgument;
+		int val;
+
+		Field(final VariableElement element, final Store store, final Option option) {
+			this.element = element;
+			this.store = store;
+			this.shortName = option.value();
+			this.longName = option.longName();
+			this.optionalArgument = option.optionalArgument();
+		}
+
+		String hasArg() {
+			if (this.store == Store.FLAG) { return "NO_ARGUMENT"; }
+			return this.optionalArgument ? "OPTIONAL_ARGUMENT" : "REQUIRED_ARGUMENT";
+		}
+	}
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		// @Option and @Operands are read through their @Options class, but claimed so that javac does not warn about them
+		return new HashSet<>(Arrays.asList(Options.class.getName(), Option.class.getName(), Operands.class.getName()));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		for (final Element element : roundEnv.getElementsAnnotatedWith(Options.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				error(element, "@Options can only be used on classes");
+				continue;
+			}
+			try {
+				generate((TypeElement)element);
+			} catch (final IOException e) {
+				error(element, "Cannot write parser: " + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	private void generate(final TypeElement type) throws IOException {
+		if (type.getModifiers().contains(Modifier.PRIVATE)) {
+			error(type, "@Options classes must not be private");
+			return;
+		}
+		final List<Field> fields = new ArrayList<>();
+		VariableElement operands = null;
+		boolean valid = true;
+		for (final Element member : type.getEnclosedElements()) {
+			if (member.getKind() != ElementKind.FIELD) { continue; }
+			final VariableElement field = (VariableElement)member;
+			final Option option = field.getAnnotation(Option.class);
+			final boolean isOperands = field.getAnnotation(Operands.class) != null;
+			if (option == null && !isOperands) { continue; }
+			if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.STATIC)
+					|| field.getModifiers().contains(Modifier.FINAL)) {
+				error(field, "Option fields must not be private, static or final");
+				valid = false;
+			} else if (isOperands) {
+				if (option != null || operands != null || !isStringArray(field.asType()) && !isStringList(field.asType())) {
+					error(field, "There must be one @Operands field, a String[] or List<String> without @Option");
+					valid = false;
+				}
+				operands = field;
+			} else {
+				final Store store = store(field.asType());
+				if (store == null) {
+					error(field, "Unsupported option field type " + field.asType());
+					valid = false;
+				} else {
+					valid &= check(field, option, store, fields);
+					fields.add(new Field(field, store, option));
+				}
+			}
+		}
+		if (!valid) { return; }
+		// Options with a short name return it from getopt(), the others get a val of their own
+		// and must not collide with a short name above FIRST_LONG_VAL
+		int nextVal = OptionsProcessor.FIRST_LONG_VAL;
+		for (final Field field : fields) {
+			if (field.shortName != 0) {
+				field.val = field.shortName;
+			} else {
+				while (isShortName(fields, nextVal)) { nextVal++; }
+				field.val = nextVal++;
+			}
+		}
+		write(type, fields, operands);
+	}
+
+	private static boolean isShortName(final List<Field> fields, final int val) {
+		for (final Field field : fields) {
+			if (field.shortName == val) { return true; }
+		}
+		return false;
+	}
+
+	private boolean check(final VariableElement element, final Option option, final Store store, final List<Field> fields) {
+		if (option.value() == 0 && option.longName().isEmpty()) {
+			error(element, "@Option needs a short option character or a long name");
+			return false;
+		}
+		if (option.value() != 0 && (option.value() == ':' || option.value() == ';' || option.value() == '-'
+				|| option.value() == '+' || option.value() == '?' || Character.isWhitespace(option.value()))) {
+			error(element, "Invalid short option character '" + option.value() + "'");
+			return false;
+		}
+		if (store == Store.FLAG && option.optionalArgument()) {
+			error(element, "boolean options take no argument");
+			return false;
+		}
+		for (final Field other : fields) {
+			if (option.value() != 0 && other.shortName == option.value() || !option.longName().isEmpty() && other.longName.equals(option.longName())) {
+				error(element, "Option declared twice, also on " + other.element.getSimpleName());
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Store store(final TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN:
+				return Store.FLAG;
+			case INT:
+				return Store.INT;
+			case LONG:
+				return Store.LONG;
+			case DOUBLE:
+				return Store.DOUBLE;
+			case DECLARED:
+				final TypeElement element = (TypeElement)((DeclaredType)type).asElement();
+				if (element.getKind() == ElementKind.ENUM) { return Store.ENUM; }
+				final String name = element.getQualifiedName().toString();
+				if (name.equals("java.lang.String")) { return Store.STRING; }
+				if (name.equals("java.nio.file.Path")) { return Store.PATH; }
+				return isStringList(type) ? Store.LIST : null;
+			default:
+				return null;
+		}
+	}
+
+	private static boolean isStringArray(final TypeMirror type) {
+		return type.getKind() == TypeKind.ARRAY && ((ArrayType)type).getComponentType().toString().equals("java.lang.String");
+	}
+
+	private static boolean isStringList(final TypeMirror type) {
+		if (type.getKind() != TypeKind.DECLARED) { return false; }
+		final DeclaredType declared = (DeclaredType)type;
+		return ((TypeElement)declared.asElement()).getQualifiedName().contentEquals("java.util.List")
+				&& declared.getTypeArguments().size() == 1 && declared.getTypeArguments().get(0).toString().equals("java.lang.String");
+	}
+
+	private void write(final TypeElement type, final List<Field> fields, final VariableElement operands) throws IOException {
+		final PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		final String targetName = type.getQualifiedName().toString();
+		final String parserName = flatName(type, packageName) + "Parser";
+		final Options options = type.getAnnotation(Options.class);
+		final StringBuilder optstring = new StringBuilder();
+		final List<Field> longOptions = new ArrayList<>();
+		for (final Field field : fields) {
+			if (field.shortName != 0) {
+				optstring.append(field.shortName);
+				if (field.store != Store.FLAG) { optstring.append(field.optionalArgument ? "::" : ":"); }
+			}
+			if (!field.longName.isEmpty()) { longOptions.add(field); }
+		}
+		final StringBuilder out = new StringBuilder();
+		if (!packageName.isEmpty()) { out.append("package ").append(packageName).append(";\n\n"); }
+		out.append("import gnu.getopt.Diagnostic;\n");
+		out.append("import gnu.getopt.Getopt;\n");
+		if (!longOptions.isEmpty()) { out.append("import gnu.getopt.LongOpt;\n"); }
+		out.append("import gnu.getopt.OptionSchema;\n\n");
+		out.append("import java.util.ArrayList;\n");
+		out.append("import java.util.List;\n\n");
+		out.append("/**\n");
+		out.append(" * Parses command lines into {@link ").append(targetName).append("} objects.\n");
+		out.append(" * Generated by ").append(OptionsProcessor.class.getName()).append(", do not edit.\n");
+		out.append(" */\n");
+		out.append("public final class ").append(parserName).append(" {\n\n");
+		out.append("\tprivate static final OptionSchema SCHEMA = OptionSchema.createGnu(").append(literal(options.progname()))
+				.append(", ").append(literal(optstring.toString())).append(", ").append(options.longOnly());
+		for (final Field field : longOptions) {
+			out.append(",\n\t\t\tnew LongOpt(").append(literal(field.longName)).append(", LongOpt.").append(field.hasArg())
+					.append(", null, ").append(caseLabel(field.val)).append(")");
+		}
+		out.append(");\n\n");
+		out.append("\tprivate ").append(parserName).append("() {\n\t}\n\n");
+		out.append("\t/**\n\t * Returns the schema the options are parsed with.\n\t */\n");
+		out.append("\tpublic static OptionSchema schema() {\n\t\treturn ").append(parserName).append(".SCHEMA;\n\t}\n\n");
+		out.append("\t/**\n");
+		out.append("\t * Parse argv and store the options in target.  Errors are not printed\n");
+		out.append("\t * but returned; argv itself is not modified.\n");
+		out.append("\t *\n\t * @return The errors found, empty if there were none\n\t */\n");
+		out.append("\tpublic static List<Diagnostic> parse(final String[] argv, final ").append(targetName).append(" target) {\n");
+		out.append("\t\tfinal List<Diagnostic> diagnostics = new ArrayList<>();\n");
+		out.append("\t\tfinal String[] args = argv.clone();\n");
+		out.append("\t\tfinal Getopt g = ").append(parserName).append(".SCHEMA.parser(args);\n");
+		out.append("\t\tg.setDiagnosticSink(diagnostics::add);\n");
+		out.append("\t\tg.setStoreFlags(false);\n");
+		out.append("\t\tg.setDeferredPermutation(true);\n");
+		out.append("\t\tint c;\n");
+		out.append("\t\twhile ((c = g.getopt()) != -1) {\n");
+		out.append("\t\t\tswitch (c) {\n");
+		for (final Field field : fields) {
+			out.append("\t\t\t\tcase ").append(caseLabel(field.val)).append(":\n");
+			writeStore(out, field);
+			out.append("\t\t\t\t\tbreak;\n");
+		}
+		out.append("\t\t\t\tdefault:\n");
+		out.append("\t\t\t\t\t// '?' and ':' are already in diagnostics\n");
+		out.append("\t\t\t\t\tbreak;\n");
+		out.append("\t\t\t}\n");
+		out.append("\t\t}\n");
+		if (operands != null) {
+			final String target = "target." + operands.getSimpleName();
+			if (isStringArray(operands.asType())) {
+				out.append("\t\t").append(target).append(" = java.util.Arrays.copyOfRange(args, g.getOptind(), args.length);\n");
+			} else {
+				out.append("\t\tif (").append(target).append(" == null) { ").append(target).append(" = new ArrayList<>(); }\n");
+				out.append("\t\tfor (int i = g.getOptind(); i < args.length; i++) { ").append(target).append(".add(args[i]); }\n");
+			}
+		}
+		out.append("\t\treturn diagnostics;\n");
+		out.append("\t}\n");
+		if (hasEnum(fields)) { writeEnumValue(out); }
+		out.append("}\n");
+		final String qualifiedName = packageName.isEmpty() ? parserName : packageName + "." + parserName;
+		try (final Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+			writer.write(out.toString());
+		}
+	}
+
+	private static void writeStore(final StringBuilder out, final Field field) {
+		final String target = "target." + field.element.getSimpleName();
+		final String indent = field.optionalArgument ? "\t\t\t\t\t\t" : "\t\t\t\t\t";
+		if (field.optionalArgument) { out.append("\t\t\t\t\tif (g.getOptarg() != null) {\n"); }
+		switch (field.store) {
+			case FLAG:
+				out.append(indent).append(target).append(" = true;\n");
+				break;
+			case STRING:
+				out.append(indent).append(target).append(" = g.getOptarg();\n");
+				break;
+			case LIST:
+				out.append(indent).append("if (").append(target).append(" == null) { ").append(target).append(" = new ArrayList<>(); }\n");
+				out.append(indent).append(target).append(".add(g.getOptarg());\n");
+				break;
+			default:
+				final String conversion;
+				final String exception;
+				if (field.store == Store.INT) {
+					conversion = "g.getOptargInt()";
+					exception = "NumberFormatException";
+				} else if (field.store == Store.LONG) {
+					conversion = "g.getOptargLong()";
+					exception = "NumberFormatException";
+				} else if (field.store == Store.DOUBLE) {
+					conversion = "g.getOptargDouble()";
+					exception = "NumberFormatException";
+				} else if (field.store == Store.PATH) {
+					conversion = "java.nio.file.Paths.get(g.getOptarg())";
+					exception = "java.nio.file.InvalidPathException";
+				} else {
+					conversion = "enumValue(" + field.element.asType() + ".values(), g.getOptarg())";
+					exception = "IllegalArgumentException";
+				}
+				out.append(indent).append("try {\n");
+				out.append(indent).append("\t").append(target).append(" = ").append(conversion).append(";\n");
+				out.append(indent).append("} catch (final ").append(exception).append(" e) {\n");
+				out.append(indent).append("\tg.reportInvalidValue();\n");
+				out.append(indent).append("}\n");
+				break;
+		}
+		if (field.optionalArgument) { out.append("\t\t\t\t\t}\n"); }
+	}
+
+	private static boolean hasEnum(final List<Field> fields) {
+		for (final Field field : fields) {
+			if (field.store == Store.ENUM) { return true; }
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the lookup of enum constants, which ignores case and takes '-'
+	 * for '_' like ValueType.ENUM does.
+	 */
+	private static void writeEnumValue(final StringBuilder out) {
+		out.append("\n");
+		out.append("\tprivate static <E extends Enum<E>> E enumValue(final E[] constants, final String s) {\n");
+		out.append("\t\tfor (final E constant : constants) {\n");
+		out.append("\t\t\tif (constant.name().equalsIgnoreCase(s.replace('-', '_'))) { return constant; }\n");
+		out.append("\t\t}\n");
+		out.append("\t\tthrow new IllegalArgumentException(s);\n");
+		out.append("\t}\n");
+	}
+
+	/**
+	 * Returns the name of type without its package, with the names of
+	 * enclosing classes joined by '_'.
+	 */
+	private static String flatName(final TypeElement type, final String packageName) {
+		final String name = type.getQualifiedName().toString();
+		return (packageName.isEmpty() ? name : name.substring(packageName.length() + 1)).replace('.', '_');
+	}
+
+	private static String caseLabel(final int val) {
+		if (val < 128 && Character.isLetterOrDigit(val)) { return "'" + (char)val + "'"; }
+		return Integer.toString(val);
+	}
+
+	private static String literal(final String s) {
+		final StringBuilder result = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < ' ' || c > '~') {
+				result.append(String.format("\\u%04x", (int)c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	private void error(final Element element, final String message) {
+		final Messager messager = this.processingEnv.getMessager();
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
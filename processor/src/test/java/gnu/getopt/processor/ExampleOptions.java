@@ -0,0 +1,39 @@
+package gnu.getopt.processor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Options(progname = "example")
+public class ExampleOptions {
+
+	enum Mode {
+		FAST, DRY_RUN, quiet
+	}
+
+	@Option('v')
+	boolean verbose;
+
+	@Option('\u0100')
+	boolean wide;
+
+	@Option(value = 'n', longName = "count")
+	int count = 1;
+
+	@Option(longName = "ratio")
+	double ratio;
+
+	@Option(value = 'o', longName = "output")
+	Path output;
+
+	@Option(longName = "mode")
+	Mode mode = Mode.FAST;
+
+	@Option(value = 'I')
+	List<String> includes;
+
+	@Option(value = 'c', longName = "color", optionalArgument = true)
+	String color;
+
+	@Operands
+	String[] files;
+}
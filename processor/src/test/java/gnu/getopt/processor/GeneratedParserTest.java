@@ -0,0 +1,57 @@
+package gnu.getopt.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.getopt.Diagnostic;
+import org.junit.Test;
+
+public class GeneratedParserTest {
+
+	@Test
+	public void testParse() {
+		final ExampleOptions options = new ExampleOptions();
+		final List<Diagnostic> diagnostics = ExampleOptionsParser.parse(new String[] {
+				"-v", "a.txt", "--cou=3", "--ratio", "0.5", "-o/tmp/out", "--mode=dry-run", "-Ix", "-I", "y", "-c", "b.txt"}, options);
+		assertTrue(diagnostics.isEmpty());
+		assertTrue(options.verbose);
+		assertEquals(3, options.count);
+		assertEquals(0.5, options.ratio, 0.0);
+		assertEquals("/tmp/out", options.output.toString());
+		assertEquals(ExampleOptions.Mode.DRY_RUN, options.mode);
+		assertEquals(Arrays.asList("x", "y"), options.includes);
+		assertEquals(null, options.color);
+		assertArrayEquals(new String[] {"a.txt", "b.txt"}, options.files);
+	}
+
+	@Test
+	public void testMixedCaseEnum() {
+		final ExampleOptions options = new ExampleOptions();
+		assertTrue(ExampleOptionsParser.parse(new String[] {"--mode=QUIET"}, options).isEmpty());
+		assertEquals(ExampleOptions.Mode.quiet, options.mode);
+	}
+
+	@Test
+	public void testShortNameAboveLongVals() {
+		final ExampleOptions options = new ExampleOptions();
+		assertTrue(ExampleOptionsParser.parse(new String[] {"-\u0100", "--ratio=2"}, options).isEmpty());
+		assertTrue(options.wide);
+		assertEquals(2.0, options.ratio, 0.0);
+	}
+
+	@Test
+	public void testErrors() {
+		final ExampleOptions options = new ExampleOptions();
+		final List<Diagnostic> diagnostics = ExampleOptionsParser.parse(new String[] {"-n", "many", "--mode=slow", "-x"}, options);
+		assertEquals(3, diagnostics.size());
+		assertEquals(Diagnostic.Kind.INVALID_VALUE, diagnostics.get(0).getKind());
+		assertEquals(Diagnostic.Kind.INVALID_VALUE, diagnostics.get(1).getKind());
+		assertEquals(Diagnostic.Kind.INVALID, diagnostics.get(2).getKind());
+		assertEquals(1, options.count);
+		assertEquals(ExampleOptions.Mode.FAST, options.mode);
+	}
+}
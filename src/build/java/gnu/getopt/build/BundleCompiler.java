@@ -0,0 +1,106 @@
+package gnu.getopt.build;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Compiles the MessagesBundle properties files into ListResourceBundle
+ * classes, so that ResourceBundle.getBundle() finds the messages as a
+ * class and does not have to look up, read and parse a resource.  Run by
+ * the build before the main sources are compiled:
+ * <p>
+ * <pre>
+ * java gnu.getopt.build.BundleCompiler &lt;properties directory&gt; &lt;source directory&gt;
+ * </pre>
+ * <p>
+ * The files are decoded like PropertyResourceBundle does on Java 9 and
+ * later: as UTF-8 if they are valid UTF-8, otherwise as ISO-8859-1.
+ */
+public final class BundleCompiler {
+
+	private static final String BUNDLE = "MessagesBundle";
+	private static final String PACKAGE = "gnu.getopt";
+
+	private BundleCompiler() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: BundleCompiler <properties directory> <source directory>");
+			System.exit(2);
+		}
+		final Path target = Paths.get(args[1], BundleCompiler.PACKAGE.split("\\."));
+		Files.createDirectories(target);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(args[0]), BundleCompiler.BUNDLE + "*.properties")) {
+			for (final Path file : files) {
+				final String name = file.getFileName().toString();
+				final String className = name.substring(0, name.length() - ".properties".length());
+				compile(file, className, target.resolve(className + ".java"));
+			}
+		}
+	}
+
+	private static void compile(final Path file, final String className, final Path source) throws IOException {
+		final Properties properties = load(Files.readAllBytes(file));
+		try (Writer out = Files.newBufferedWriter(source, StandardCharsets.US_ASCII)) {
+			out.write("// Generated from " + file.getFileName() + " by " + BundleCompiler.class.getName() + ", do not edit\n");
+			out.write("package " + BundleCompiler.PACKAGE + ";\n\n");
+			out.write("import java.util.ListResourceBundle;\n\n");
+			out.write("public final class " + className + " extends ListResourceBundle {\n\n");
+			out.write("\t@Override\n");
+			out.write("\tprotected Object[][] getContents() {\n");
+			out.write("\t\treturn new Object[][] {\n");
+			for (final String key : new TreeSet<>(properties.stringPropertyNames())) {
+				// The license headers start with "/" and are read as keys, not comments
+				if (key.startsWith("/")) { continue; }
+				out.write("\t\t\t{" + literal(key) + ", " + literal(properties.getProperty(key)) + "},\n");
+			}
+			out.write("\t\t};\n");
+			out.write("\t}\n");
+			out.write("}\n");
+		}
+	}
+
+	private static Properties load(final byte[] bytes) throws IOException {
+		final Properties properties = new Properties();
+		try {
+			final String text = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(bytes)).toString();
+			properties.load(new StringReader(text));
+		} catch (final CharacterCodingException e) {
+			properties.load(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.ISO_8859_1));
+		}
+		return properties;
+	}
+
+	/**
+	 * Returns s as a Java string literal in ASCII.
+	 */
+	private static String literal(final String s) {
+		final StringBuilder literal = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				literal.append('\\').append(c);
+			} else if (c < ' ' || c > '~') {
+				literal.append(String.format("\\u%04x", (int)c));
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.append('"').toString();
+	}
+}
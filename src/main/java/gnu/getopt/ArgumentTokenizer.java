@@ -0,0 +1,105 @@
+package gnu.getopt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits text into arguments the way GNU libiberty's buildargv() does for
+ * response files: arguments are separated by whitespace, single and double
+ * quotes group characters including whitespace, and a backslash takes the
+ * next character literally, inside quotes as well.  A pair of quotes with
+ * nothing between them is an empty argument.
+ * <p>
+ * The text is read from a Readable through a small buffer, one argument at
+ * a time, so only the argument being built is held in memory.
+ */
+final class ArgumentTokenizer implements Iterator<String> {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Readable source;
+	private final CharBuffer buffer = CharBuffer.allocate(ArgumentTokenizer.BUFFER_SIZE);
+	private final StringBuilder token = new StringBuilder();
+	private boolean eof;
+	private String next;
+
+	ArgumentTokenizer(final Readable source) {
+		this.source = source;
+		this.buffer.flip();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.next == null) { this.next = scan(); }
+		return this.next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) { throw new NoSuchElementException(); }
+		final String result = this.next;
+		this.next = null;
+		return result;
+	}
+
+	private String scan() {
+		int c;
+		do {
+			c = read();
+		} while (c != -1 && isWhitespace(c));
+		if (c == -1) { return null; }
+		this.token.setLength(0);
+		boolean squote = false;
+		boolean dquote = false;
+		boolean bsquote = false;
+		for (; c != -1; c = read()) {
+			if (bsquote) {
+				bsquote = false;
+				this.token.append((char)c);
+			} else if (c == '\\') {
+				bsquote = true;
+			} else if (squote) {
+				if (c == '\'') { squote = false; } else { this.token.append((char)c); }
+			} else if (dquote) {
+				if (c == '"') { dquote = false; } else { this.token.append((char)c); }
+			} else if (c == '\'') {
+				squote = true;
+			} else if (c == '"') {
+				dquote = true;
+			} else if (isWhitespace(c)) {
+				break;
+			} else {
+				this.token.append((char)c);
+			}
+		}
+		return this.token.toString();
+	}
+
+	private int read() {
+		if (!this.buffer.hasRemaining()) {
+			if (this.eof) { return -1; }
+			this.buffer.clear();
+			int count;
+			try {
+				do {
+					count = this.source.read(this.buffer);
+				} while (count == 0);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			this.buffer.flip();
+			if (count < 0) {
+				this.eof = true;
+				return -1;
+			}
+		}
+		return this.buffer.get();
+	}
+
+	private static boolean isWhitespace(final int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+	}
+}
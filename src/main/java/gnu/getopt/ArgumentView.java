@@ -0,0 +1,151 @@
+package gnu.getopt;
+
+/**
+ * A CharSequence over a region of an argv element, so that option
+ * arguments and names can be handed out without building a String for
+ * them.  Getopt keeps one instance per kind of view and moves it with
+ * set() on every request.  The static methods parse numbers directly from
+ * a region of a String.
+ */
+final class ArgumentView implements CharSequence {
+
+	/**
+	 * The largest long that converts to a double exactly
+	 */
+	private static final long MAX_EXACT = 1L << 53;
+
+	/**
+	 * The powers of ten that are exact as doubles
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private String element;
+	private int start;
+	private int end;
+
+	ArgumentView set(final String element, final int start, final int end) {
+		this.element = element;
+		this.start = start;
+		this.end = end;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return this.end - this.start;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		if (index < 0 || index >= length()) { throw new IndexOutOfBoundsException(Integer.toString(index)); }
+		return this.element.charAt(this.start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		if (start < 0 || end > length() || start > end) { throw new IndexOutOfBoundsException(start + ", " + end); }
+		return new ArgumentView().set(this.element, this.start + start, this.start + end);
+	}
+
+	@Override
+	public String toString() {
+		return this.element.substring(this.start, this.end);
+	}
+
+	/**
+	 * Parse s[start..end) as a decimal int, with the same rules as
+	 * Integer.parseInt().
+	 */
+	static int parseInt(final String s, final int start, final int end) {
+		final long value = parseLong(s, start, end);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) { throw invalid(s, start, end); }
+		return (int)value;
+	}
+
+	/**
+	 * Parse s[start..end) as a decimal long, with the same rules as
+	 * Long.parseLong().
+	 */
+	static long parseLong(final String s, final int start, final int end) {
+		if (start >= end) { throw invalid(s, start, end); }
+		int i = start;
+		boolean negative = false;
+		// Accumulate negatively, since Long.MIN_VALUE has no positive counterpart
+		long limit = -Long.MAX_VALUE;
+		final char first = s.charAt(i);
+		if (first < '0') {
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+			} else if (first != '+') {
+				throw invalid(s, start, end);
+			}
+			if (end - start == 1) { throw invalid(s, start, end); }
+			i++;
+		}
+		final long multmin = limit / 10;
+		long result = 0;
+		while (i < end) {
+			final int digit = Character.digit(s.charAt(i++), 10);
+			if (digit < 0 || result < multmin) { throw invalid(s, start, end); }
+			result *= 10;
+			if (result < limit + digit) { throw invalid(s, start, end); }
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Parse s[start..end) as a double, with the same result as
+	 * Double.parseDouble().  Plain decimal numbers with up to 15 or so
+	 * significant digits and a small exponent, which is what command lines
+	 * usually hold, are converted exactly without building a String; for
+	 * everything else Double.parseDouble() is called.
+	 */
+	static double parseDouble(final String s, final int start, final int end) {
+		int i = start;
+		final boolean negative = i < end && s.charAt(i) == '-';
+		if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) { i++; }
+		long mantissa = 0;
+		int scale = 0;
+		int digits = 0;
+		boolean point = false;
+		for (; i < end; i++) {
+			final char c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (mantissa > (ArgumentView.MAX_EXACT - (c - '0')) / 10) { return Double.parseDouble(s.substring(start, end)); }
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (point) { scale--; }
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) { return Double.parseDouble(s.substring(start, end)); }
+		if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			final boolean negativeExponent = i < end && s.charAt(i) == '-';
+			if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) { i++; }
+			final int exponentStart = i;
+			int exponent = 0;
+			for (; i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9' && exponent < 1000; i++) { exponent = exponent * 10 + s.charAt(i) - '0'; }
+			if (i == exponentStart) { return Double.parseDouble(s.substring(start, end)); }
+			scale += negativeExponent ? -exponent : exponent;
+		}
+		// Anything else, or a scale whose power of ten is not exact, takes the slow path
+		if (i != end || scale < -22 || scale > 22) { return Double.parseDouble(s.substring(start, end)); }
+		// Both operands are exact, so the single rounding gives the correctly rounded result
+		double value = mantissa;
+		value = scale < 0 ? value / ArgumentView.POWERS_OF_TEN[-scale] : value * ArgumentView.POWERS_OF_TEN[scale];
+		return negative ? -value : value;
+	}
+
+	private static NumberFormatException invalid(final String s, final int start, final int end) {
+		return new NumberFormatException("For input string: \"" + s.substring(start, end) + "\"");
+	}
+}
@@ -0,0 +1,157 @@
+package gnu.getopt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Parses many argument vectors against one schema in parallel, for
+ * example the command lines recorded in a log.
+ * <p>
+ * Each thread that takes part keeps one Getopt object and one recorder
+ * for the schema and reuses them for every argument vector it parses, so
+ * that parsing a line allocates only its copy of argv and its result.
+ * Between lines they hold no reference to argv, its arguments or its
+ * values, only arrays sized for the longest line parsed so far.
+ * parseAll() splits a list into ranges with fork/join, parse() maps a
+ * parallel stream.  Every result is the ParsedArgs OptionSchema.parse()
+ * would return.  To keep the memory of a large batch small, pass a
+ * function that reduces each ParsedArgs to what is needed of it; the
+ * ParsedArgs itself is then garbage right away:
+ * <p>
+ * <pre>
+ * List&lt;Category&gt; categories = new BatchParser(SCHEMA).parseAll(commandLines, args -&gt; classify(args));
+ * </pre>
+ * <p>
+ * A BatchParser is thread-safe.
+ */
+public final class BatchParser {
+
+	/**
+	 * The number of argument vectors below which a range is not split further
+	 */
+	private static final int LEAF_SIZE = 256;
+
+	private static final String[] NONE = new String[0];
+
+	private final OptionSchema schema;
+	private final ThreadLocal<Worker> workers;
+
+	/**
+	 * @param schema The schema to parse with
+	 */
+	public BatchParser(final OptionSchema schema) {
+		this.schema = schema;
+		this.workers = ThreadLocal.withInitial(() -> new Worker(schema));
+	}
+
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * Parse a list of argument vectors in the common fork/join pool, or in
+	 * the pool of the calling task.
+	 *
+	 * @param argvs The argument vectors, which are copied before they are parsed
+	 *
+	 * @return The results, in the order of argvs
+	 */
+	public List<ParsedArgs> parseAll(final List<String[]> argvs) {
+		return parseAll(argvs, Function.identity());
+	}
+
+	/**
+	 * Parse a list of argument vectors and map each result.
+	 *
+	 * @param argvs The argument vectors, which are copied before they are parsed
+	 * @param mapper Called concurrently from several threads, with each ParsedArgs
+	 *
+	 * @return The mapped results, in the order of argvs
+	 */
+	public <R> List<R> parseAll(final List<String[]> argvs, final Function<? super ParsedArgs, ? extends R> mapper) {
+		final String[][] lines = argvs.toArray(new String[argvs.size()][]);
+		final Object[] results = new Object[lines.length];
+		new ParseTask(lines, results, mapper, 0, lines.length).invoke();
+		@SuppressWarnings("unchecked")
+		final List<R> list = (List<R>)Arrays.asList(results);
+		return list;
+	}
+
+	/**
+	 * Parse a stream of argument vectors in parallel and map each result.
+	 * The stream is made parallel; its order is kept if it has one.
+	 *
+	 * @param argvs The argument vectors, which are copied before they are parsed
+	 * @param mapper Called concurrently from several threads, with each ParsedArgs
+	 *
+	 * @return A parallel stream of the mapped results
+	 */
+	public <R> Stream<R> parse(final Stream<String[]> argvs, final Function<? super ParsedArgs, ? extends R> mapper) {
+		return argvs.parallel().map(argv -> mapper.apply(this.workers.get().parse(argv)));
+	}
+
+	/**
+	 * The parser state of one thread
+	 */
+	private static final class Worker {
+
+		private final Getopt getopt;
+		private final ParsedArgs.Recorder recorder = new ParsedArgs.Recorder(16);
+
+		Worker(final OptionSchema schema) {
+			this.getopt = schema.parser(BatchParser.NONE);
+			this.getopt.setDiagnosticSink(this.recorder);
+			this.getopt.setStoreFlags(false);
+			this.getopt.setDeferredPermutation(true);
+		}
+
+		ParsedArgs parse(final String[] argv) {
+			this.getopt.reset(argv.clone());
+			try {
+				return ParsedArgs.parse(this.getopt, this.recorder);
+			} finally {
+				// The worker outlives the batch on its pool thread, so let go of the line
+				this.getopt.reset(BatchParser.NONE);
+				this.recorder.truncate(0, 0, 0);
+			}
+		}
+	}
+
+	/**
+	 * Parses the argument vectors from index from to index to, splitting
+	 * the range in halves down to LEAF_SIZE
+	 */
+	private final class ParseTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String[][] argvs;
+		private final Object[] results;
+		private final Function<? super ParsedArgs, ?> mapper;
+		private final int from;
+		private final int to;
+
+		ParseTask(final String[][] argvs, final Object[] results, final Function<? super ParsedArgs, ?> mapper, final int from, final int to) {
+			this.argvs = argvs;
+			this.results = results;
+			this.mapper = mapper;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > BatchParser.LEAF_SIZE) {
+				final int mid = this.from + this.to >>> 1;
+				invokeAll(new ParseTask(this.argvs, this.results, this.mapper, this.from, mid),
+						new ParseTask(this.argvs, this.results, this.mapper, mid, this.to));
+			} else {
+				final Worker worker = BatchParser.this.workers.get();
+				for (int i = this.from; i < this.to; i++) { this.results[i] = this.mapper.apply(worker.parse(this.argvs[i])); }
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package gnu.getopt;
+
+/**
+ * The case folding used when option names and characters are matched
+ * case-insensitively (ignoreOptionCase).  Two characters match if they
+ * fold to the same character, which is the rule of
+ * String.equalsIgnoreCase() and String.regionMatches(true, ...): the
+ * lower case of the upper case of the character.  Unlike
+ * String.toLowerCase(), this does not depend on the default locale, so
+ * "INFO" matches "info" with a Turkish locale too, and it never changes
+ * the length of a name.
+ * <p>
+ * ASCII characters are folded through a table.  Names are folded once,
+ * when the option tables are built, so that matching a command line
+ * argument only folds the characters of the argument, in place, without
+ * allocating.
+ */
+final class CaseFolding {
+
+	private static final char[] ASCII = new char[128];
+
+	static {
+		for (char c = 0; c < CaseFolding.ASCII.length; c++) {
+			CaseFolding.ASCII[c] = c >= 'A' && c <= 'Z' ? (char)(c + ('a' - 'A')) : c;
+		}
+	}
+
+	private CaseFolding() {
+	}
+
+	/**
+	 * Returns the character all characters that match c case-insensitively
+	 * fold to.
+	 */
+	static char fold(final char c) {
+		return c < CaseFolding.ASCII.length ? CaseFolding.ASCII[c] : Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * Returns s with every character folded, or s itself if no character
+	 * changes.
+	 */
+	static String fold(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (fold(s.charAt(i)) != s.charAt(i)) {
+				final char[] folded = s.toCharArray();
+				for (int j = i; j < folded.length; j++) { folded[j] = fold(folded[j]); }
+				return new String(folded);
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Returns true if the len characters of s at start match those of the
+	 * already folded key at offset.
+	 */
+	static boolean regionMatches(final String folded, final int offset, final String s, final int start, final int len) {
+		for (int i = 0; i < len; i++) {
+			if (folded.charAt(offset + i) != fold(s.charAt(start + i))) { return false; }
+		}
+		return true;
+	}
+}
@@ -0,0 +1,216 @@
+package gnu.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Dispatches command lines of the form "tool [global options] command
+ * [command options] [operands]" to the schema of the command.
+ * <p>
+ * A CommandTree holds the options that may precede a command name and
+ * the commands it knows.  The options are always parsed in REQUIRE_ORDER
+ * mode, so that the first non-option ends them and is taken as the name
+ * of the command.  A command is either a leaf, whose OptionSchema parses
+ * the rest of argv in its own ordering, or another CommandTree, for
+ * nested commands such as "tool remote add".
+ * <p>
+ * Commands are registered with a Supplier which is called the first
+ * time the command is selected, so that a program with many commands
+ * only builds the LongOpt arrays and compiles the schema of the one that
+ * is invoked:
+ * <p>
+ * <pre>
+ * static final CommandTree COMMANDS = CommandTree.create(OptionSchema.createGnu("tool", "v", globalLongopts))
+ *     .addCommand("build", () -&gt; OptionSchema.createGnu("tool build", "j:", buildLongopts()))
+ *     .addCommandGroup("remote", () -&gt; CommandTree.create(OptionSchema.createGnu("tool remote", ""))
+ *         .addCommand("add", ...));
+ * //
+ * ParsedCommand command = COMMANDS.parse(argv);
+ * switch (command.getName()) {
+ *   ...
+ * </pre>
+ * <p>
+ * Register every command before the tree is used.  After that a
+ * CommandTree can be shared between threads; the compiled schemas are
+ * published safely and each Supplier is called at most once.
+ *
+ * @see ParsedCommand
+ */
+public final class CommandTree {
+
+	private final OptionSchema schema;
+	private final Map<String, Command> commands = new HashMap<>();
+
+	private CommandTree(final OptionSchema options) {
+		this.schema = options.withOrdering(OptionSchema.REQUIRE_ORDER);
+	}
+
+	/**
+	 * Create a command tree.
+	 *
+	 * @param options The options that may precede the command name, parsed in REQUIRE_ORDER mode
+	 *
+	 * @return A CommandTree without commands
+	 */
+	public static CommandTree create(final OptionSchema options) {
+		return new CommandTree(options);
+	}
+
+	/**
+	 * Register a command that parses the rest of the command line with
+	 * the schema returned by the supplier.
+	 *
+	 * @param name The command name
+	 * @param schema Called once, when the command is first selected
+	 *
+	 * @return This tree
+	 */
+	public CommandTree addCommand(final String name, final Supplier<OptionSchema> schema) {
+		add(name, new Command(schema));
+		return this;
+	}
+
+	/**
+	 * Register a command that is followed by a command of its own.
+	 *
+	 * @param name The command name
+	 * @param commands Called once, when the command is first selected
+	 *
+	 * @return This tree
+	 */
+	public CommandTree addCommandGroup(final String name, final Supplier<CommandTree> commands) {
+		add(name, new Command(commands));
+		return this;
+	}
+
+	/**
+	 * Returns the schema of the options before the command name, in
+	 * REQUIRE_ORDER mode.
+	 */
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * Returns the names of the commands, sorted.
+	 */
+	public Set<String> getCommandNames() {
+		return Collections.unmodifiableSet(new TreeSet<>(this.commands.keySet()));
+	}
+
+	public boolean hasCommand(final String name) {
+		return this.commands.containsKey(name);
+	}
+
+	/**
+	 * Returns true if the command has been selected by a parse, so its
+	 * schema or tree has been built.
+	 */
+	public boolean isCompiled(final String name) {
+		final Command command = this.commands.get(name);
+		return command != null && command.compiled != null;
+	}
+
+	/**
+	 * Parse a command line.  Like OptionSchema.parse(), this works on
+	 * copies of argv, collects errors instead of printing them and is
+	 * thread-safe.
+	 * <p>
+	 * The options of this tree are parsed first.  The first operand that
+	 * follows them names the command, which parses the rest of argv.  If
+	 * there is no operand, or it is not the name of a command, the parse
+	 * stops at this tree; an unknown name is reported as a Diagnostic of
+	 * kind UNKNOWN_COMMAND.
+	 *
+	 * @param argv The String array passed as the command line to the program
+	 *
+	 * @return The selected command and the options of every level
+	 */
+	public ParsedCommand parse(final String[] argv) {
+		final List<String> path = new ArrayList<>();
+		final List<ParsedArgs> levels = new ArrayList<>();
+		final List<Integer> offsets = new ArrayList<>();
+		final List<Diagnostic> diagnostics = new ArrayList<>();
+		CommandTree tree = this;
+		OptionSchema schema = this.schema;
+		String[] args = argv;
+		int offset = 0;
+		while (true) {
+			final ParsedArgs parsed = schema.parse(args);
+			levels.add(parsed);
+			offsets.add(offset);
+			for (final Diagnostic diagnostic : parsed.getDiagnostics()) {
+				diagnostics.add(offset == 0 ? diagnostic : diagnostic.atArgvIndex(offset + diagnostic.getArgvIndex()));
+			}
+			if (tree == null || parsed.getOperandCount() == 0) { break; }
+			// REQUIRE_ORDER does not permute, the operands are the tail of args
+			final int commandIndex = offset + args.length - parsed.getOperandCount();
+			final String name = parsed.getOperand(0);
+			final Object compiled = tree.command(name);
+			if (compiled == null) {
+				diagnostics.add(new Diagnostic(Diagnostic.Kind.UNKNOWN_COMMAND, commandIndex, name, 0, schema.messages(),
+						"getopt.unknownCommand", schema.getProgname(), name));
+				break;
+			}
+			path.add(name);
+			if (compiled instanceof CommandTree) {
+				tree = (CommandTree)compiled;
+				schema = tree.schema;
+			} else {
+				tree = null;
+				schema = (OptionSchema)compiled;
+			}
+			args = Arrays.copyOfRange(argv, commandIndex + 1, argv.length);
+			offset = commandIndex + 1;
+		}
+		return new ParsedCommand(path, levels, offsets, diagnostics);
+	}
+
+	/**
+	 * Returns the OptionSchema or CommandTree of a command, building it on
+	 * first use, or null if there is no such command.
+	 */
+	Object command(final String name) {
+		final Command command = this.commands.get(name);
+		return command == null ? null : command.get();
+	}
+
+	private void add(final String name, final Command command) {
+		if (this.commands.putIfAbsent(name, command) != null) { throw new IllegalArgumentException("duplicate command " + name); }
+	}
+
+	/**
+	 * A registered command, compiled on first use
+	 */
+	private static final class Command {
+
+		private final Supplier<?> factory;
+		private volatile Object compiled;
+
+		Command(final Supplier<?> factory) {
+			this.factory = factory;
+		}
+
+		Object get() {
+			Object result = this.compiled;
+			if (result == null) {
+				synchronized (this) {
+					result = this.compiled;
+					if (result == null) {
+						result = this.factory.get();
+						if (result == null) { throw new IllegalStateException("command supplier returned null"); }
+						this.compiled = result;
+					}
+				}
+			}
+			return result;
+		}
+	}
+}
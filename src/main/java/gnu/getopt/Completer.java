@@ -0,0 +1,350 @@
+package gnu.getopt;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers the question a shell asks when the user presses tab: what can
+ * come at this position of the command line?
+ * <p>
+ * complete() reads the words before the cursor the way getopt() would, to
+ * find out whether the word at the cursor is an option, the argument of
+ * an option that requires one, a command name or an operand, and returns
+ * the option or command names the word can be completed to.  Long option
+ * names are found through the sorted name index of the schema, so
+ * completing a prefix costs a binary search plus the matches, not a scan
+ * of all long options.
+ * <p>
+ * completeIfRequested() is an entry point for shell completion functions.
+ * A program calls it first thing in main():
+ * <p>
+ * <pre>
+ * static final Completer COMPLETER = Completer.create(SCHEMA);
+ * //
+ * public static void main(String[] argv) {
+ *   if (COMPLETER.completeIfRequested(argv, System.out)) {
+ *     return;
+ *   }
+ *   ...
+ * </pre>
+ * <p>
+ * and the completion function passes it the index of the word at the
+ * cursor and the words after the program name, for example in bash:
+ * <p>
+ * <pre>
+ * _tool() {
+ *   COMPREPLY=($(tool --complete $((COMP_CWORD - 1)) "${COMP_WORDS[@]:1}"))
+ * }
+ * complete -F _tool tool
+ * </pre>
+ * <p>
+ * Completer objects are immutable and can be shared between threads.
+ *
+ * @see Completion
+ */
+public final class Completer {
+
+	/**
+	 * The first argument that makes completeIfRequested() complete instead
+	 * of letting the program run
+	 */
+	public static final String COMPLETE_OPTION = "--complete";
+
+	private final OptionSchema schema;
+	private final CommandTree commands;
+
+	private Completer(final OptionSchema schema, final CommandTree commands) {
+		this.schema = schema;
+		this.commands = commands;
+	}
+
+	/**
+	 * Create a completer for the options of a schema.
+	 */
+	public static Completer create(final OptionSchema schema) {
+		return new Completer(schema, null);
+	}
+
+	/**
+	 * Create a completer for a command line with commands.  Completing
+	 * after a command name builds the schema of the command, like
+	 * CommandTree.parse() does.
+	 */
+	public static Completer create(final CommandTree commands) {
+		return new Completer(commands.getSchema(), commands);
+	}
+
+	/**
+	 * Complete a word of a command line.
+	 *
+	 * @param words The arguments, without the program name
+	 * @param cursor The index of the word to complete.  If it is words.length, an empty word is completed.
+	 *
+	 * @return The context of the word and its candidates
+	 */
+	public Completion complete(final String[] words, final int cursor) {
+		if (cursor < 0 || cursor > words.length) { throw new IndexOutOfBoundsException("cursor " + cursor); }
+		final String word = cursor < words.length ? words[cursor] : "";
+		final List<String> path = new ArrayList<>();
+		OptionSchema schema = this.schema;
+		CommandTree tree = this.commands;
+		boolean optionsEnded = false;
+		String pending = null;
+		boolean longName = false;
+		for (int i = 0; i < cursor; i++) {
+			final String arg = words[i];
+			if (pending != null) {
+				pending = null;
+			} else if (longName) {
+				// The word after "-W" is a long option name
+				longName = false;
+				pending = pendingLongOption(schema, arg, 0);
+			} else if (!optionsEnded && arg.equals(schema.getNonOptionSeparator())) {
+				optionsEnded = true;
+			} else if (optionsEnded || schema.isNonoption(arg)) {
+				if (tree != null) {
+					// The first operand after the options of a tree names the command
+					final Object compiled = tree.command(arg);
+					if (compiled == null) {
+						tree = null;
+						optionsEnded = true;
+					} else {
+						path.add(arg);
+						tree = compiled instanceof CommandTree ? (CommandTree)compiled : null;
+						schema = tree != null ? tree.getSchema() : (OptionSchema)compiled;
+						optionsEnded = false;
+					}
+				} else if (schema.ordering() == OptionSchema.REQUIRE_ORDER) {
+					optionsEnded = true;
+				}
+			} else if (takesLongOptionName(schema, arg)) {
+				longName = true;
+			} else {
+				pending = pendingOption(schema, arg);
+			}
+		}
+		if (longName) { return completeLongOption(schema, word, 0, path); }
+		if (pending != null) { return new Completion(Completion.Context.ARGUMENT, word, pending, word, new ArrayList<>(), path); }
+		if (!optionsEnded && word.length() > 0 && word.charAt(0) == schema.getOptionPrefix()) { return completeOption(schema, word, path); }
+		final List<String> candidates = new ArrayList<>();
+		if (tree != null) {
+			for (final String name : tree.getCommandNames()) {
+				if (name.startsWith(word)) { candidates.add(name); }
+			}
+			return new Completion(Completion.Context.COMMAND, word, null, null, candidates, path);
+		}
+		return new Completion(Completion.Context.OPERAND, word, null, null, candidates, path);
+	}
+
+	/**
+	 * If the first argument is COMPLETE_OPTION, complete and print the
+	 * candidates, one per line.  The second argument is the index of the
+	 * word to complete among the arguments after it.
+	 *
+	 * @param argv The arguments of the program
+	 * @param out Receives the candidates
+	 *
+	 * @return true if argv was a completion request, and the program should exit
+	 */
+	public boolean completeIfRequested(final String[] argv, final PrintStream out) {
+		if (argv.length == 0 || !argv[0].equals(Completer.COMPLETE_OPTION)) { return false; }
+		final int cursor;
+		try {
+			cursor = argv.length > 1 ? Integer.parseInt(argv[1]) : -1;
+		} catch (final NumberFormatException e) {
+			return true;
+		}
+		if (cursor < 0 || cursor > argv.length - 2) { return true; }
+		for (final String candidate : complete(Arrays.copyOfRange(argv, 2, argv.length), cursor).getCandidates()) {
+			out.println(candidate);
+		}
+		out.flush();
+		return true;
+	}
+
+	/**
+	 * Complete a word that starts with the option prefix.
+	 */
+	private static Completion completeOption(final OptionSchema schema, final String word, final List<String> path) {
+		final List<String> candidates = new ArrayList<>();
+		final String longPrefix = schema.getLongOptionPrefix();
+		if (word.equals(schema.optionPrefixStr())) {
+			addShortOptions(schema, candidates);
+			addLongOptions(schema, longPrefix, word, word.length(), candidates);
+		} else if (isLongOption(schema, word)) {
+			return completeLongOption(schema, word, word.startsWith(longPrefix) ? longPrefix.length() : 1, path);
+		} else {
+			final int argument = argumentStart(schema, word);
+			if (argument > 0) {
+				// "-Wname" spells a long option after the 'W'
+				if (ShortOptionTable.kind(schema.shortOptions().lookup(word.charAt(argument - 1))) == ShortOptionTable.LONG_OPTION) {
+					return completeLongOption(schema, word, argument, path);
+				}
+				final char c = (char)ShortOptionTable.canonical(schema.shortOptions().lookup(word.charAt(argument - 1)));
+				return new Completion(Completion.Context.ARGUMENT, word, String.valueOf(c), word.substring(argument), candidates, path);
+			}
+			addCluster(schema, word, candidates);
+			// getopt_long_only() takes "-f" as a known option character, but longer words as long options
+			if (schema.isLongOnly() && word.length() == 2) { addLongOptions(schema, schema.optionPrefixStr(), word, 1, candidates); }
+		}
+		return new Completion(Completion.Context.OPTION, word, null, null, candidates, path);
+	}
+
+	/**
+	 * Complete a long option name that starts at start in word, or its
+	 * argument if the word already has the name-value separator.  The
+	 * candidates are spelled with the characters before start.
+	 */
+	private static Completion completeLongOption(final OptionSchema schema, final String word, final int start, final List<String> path) {
+		final List<String> candidates = new ArrayList<>();
+		final int separator = word.indexOf(schema.getNameValueSeparator(), start);
+		if (separator >= 0) {
+			// The argument is being typed in the same word as the name
+			final int index = schema.longOptions() != null ? schema.lookupLongOption(word, start, separator) : -1;
+			if (index < 0 || schema.longOptions()[index].getHasArg() == LongOpt.NO_ARGUMENT) {
+				return new Completion(Completion.Context.OPTION, word, null, null, candidates, path);
+			}
+			return new Completion(Completion.Context.ARGUMENT, word, schema.longOptions()[index].getName(),
+					word.substring(separator + schema.getNameValueSeparator().length()), candidates, path);
+		}
+		addLongOptions(schema, word.substring(0, start), word, start, candidates);
+		return new Completion(Completion.Context.OPTION, word, null, null, candidates, path);
+	}
+
+	/**
+	 * Returns the option whose argument the next word is, if arg is an
+	 * option element that ends with an option that requires an argument,
+	 * otherwise null.
+	 */
+	private static String pendingOption(final OptionSchema schema, final String arg) {
+		if (!isShortOptionElement(schema, arg)) {
+			final String longPrefix = schema.getLongOptionPrefix();
+			return pendingLongOption(schema, arg, arg.startsWith(longPrefix) ? longPrefix.length() : 1);
+		}
+		for (int i = 1; i < arg.length(); i++) {
+			final int descriptor = schema.shortOptions().lookup(arg.charAt(i));
+			switch (ShortOptionTable.kind(descriptor)) {
+			case ShortOptionTable.REQUIRED_ARGUMENT:
+				return i + 1 == arg.length() ? String.valueOf((char)ShortOptionTable.canonical(descriptor)) : null;
+			case ShortOptionTable.LONG_OPTION:
+				return i + 1 < arg.length() ? pendingLongOption(schema, arg, i + 1) : null;
+			case ShortOptionTable.OPTIONAL_ARGUMENT:
+				return null;
+			default:
+				break;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the long option whose argument the next word is, if the
+	 * characters of arg from start name a long option that requires an
+	 * argument and do not contain it, otherwise null.
+	 */
+	private static String pendingLongOption(final OptionSchema schema, final String arg, final int start) {
+		if (schema.longOptions() == null) { return null; }
+		final int separator = arg.indexOf(schema.getNameValueSeparator(), start);
+		final int index = schema.lookupLongOption(arg, start, separator < 0 ? arg.length() : separator);
+		if (index < 0) { return null; }
+		final LongOpt option = schema.longOptions()[index];
+		return separator < 0 && option.getHasArg() == LongOpt.REQUIRED_ARGUMENT ? option.getName() : null;
+	}
+
+	/**
+	 * Whether arg is an option element that ends with a "W;" option, so
+	 * that the next word is the name of a long option.
+	 */
+	private static boolean takesLongOptionName(final OptionSchema schema, final String arg) {
+		if (!isShortOptionElement(schema, arg)) { return false; }
+		for (int i = 1; i < arg.length(); i++) {
+			final int kind = ShortOptionTable.kind(schema.shortOptions().lookup(arg.charAt(i)));
+			if (kind == ShortOptionTable.LONG_OPTION) { return i + 1 == arg.length(); }
+			if (kind == ShortOptionTable.REQUIRED_ARGUMENT || kind == ShortOptionTable.OPTIONAL_ARGUMENT) { return false; }
+		}
+		return false;
+	}
+
+	/**
+	 * Whether getopt() reads an option element as a cluster of short
+	 * options.
+	 */
+	private static boolean isShortOptionElement(final OptionSchema schema, final String arg) {
+		if (!isLongOption(schema, arg)) { return true; }
+		// As in getopt(), only getopt_long_only() falls back to short options, for names that are not long options
+		final String longPrefix = schema.getLongOptionPrefix();
+		if (!schema.isLongOnly() || arg.startsWith(longPrefix) || schema.shortOptions().lookup(arg.charAt(1)) == ShortOptionTable.ABSENT) {
+			return false;
+		}
+		final int separator = arg.indexOf(schema.getNameValueSeparator(), 1);
+		return schema.lookupLongOption(arg, 1, separator < 0 ? arg.length() : separator) < 0;
+	}
+
+	/**
+	 * The test getopt() uses to decide whether an option element is a long
+	 * option.
+	 */
+	private static boolean isLongOption(final OptionSchema schema, final String arg) {
+		return schema.longOptions() != null && (arg.startsWith(schema.getLongOptionPrefix())
+				|| schema.isLongOnly() && (arg.length() > 2 || schema.shortOptions().lookup(arg.charAt(1)) == ShortOptionTable.ABSENT));
+	}
+
+	/**
+	 * Returns the index in a cluster of short options at which the argument
+	 * of an option starts, or 0 if no option in the cluster has its
+	 * argument in it.
+	 */
+	private static int argumentStart(final OptionSchema schema, final String cluster) {
+		for (int i = 1; i + 1 < cluster.length(); i++) {
+			final int kind = ShortOptionTable.kind(schema.shortOptions().lookup(cluster.charAt(i)));
+			if (kind == ShortOptionTable.REQUIRED_ARGUMENT || kind == ShortOptionTable.OPTIONAL_ARGUMENT
+					|| kind == ShortOptionTable.LONG_OPTION) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Add a cluster of short options as it is, if all of its characters are
+	 * options.
+	 */
+	private static void addCluster(final OptionSchema schema, final String cluster, final List<String> candidates) {
+		for (int i = 1; i < cluster.length(); i++) {
+			if (schema.shortOptions().lookup(cluster.charAt(i)) == ShortOptionTable.ABSENT) { return; }
+		}
+		candidates.add(cluster);
+	}
+
+	private static void addShortOptions(final OptionSchema schema, final List<String> candidates) {
+		final String optstring = schema.getOptstring();
+		final StringBuilder seen = new StringBuilder();
+		for (int i = 0; i < optstring.length(); i++) {
+			final char c = optstring.charAt(i);
+			if (c == ':' || c == ';' || c == ' ' || seen.indexOf(String.valueOf(c)) >= 0) { continue; }
+			seen.append(c);
+			candidates.add(schema.optionPrefixStr() + c);
+		}
+	}
+
+	/**
+	 * Add the long options whose names start with the characters of word
+	 * from start, each spelled with the prefix.
+	 */
+	private static void addLongOptions(final OptionSchema schema, final String prefix, final String word, final int start,
+			final List<String> candidates) {
+		if (schema.longOptions() == null) { return; }
+		final LongOpt[] longOptions = schema.longOptions();
+		final int first = candidates.size();
+		schema.forEachLongOptionPrefixed(word, start, word.length(), index -> {
+			final String candidate = prefix + longOptions[index].getName();
+			// Equal names are adjacent in name order
+			final String last = candidates.size() > first ? candidates.get(candidates.size() - 1) : null;
+			if (last == null || !(schema.isIgnoreOptionCase() ? last.equalsIgnoreCase(candidate) : last.equals(candidate))) {
+				candidates.add(candidate);
+			}
+		});
+	}
+}
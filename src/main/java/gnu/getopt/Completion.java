@@ -0,0 +1,110 @@
+package gnu.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer of Completer.complete(): what the word at the cursor is
+ * and the words it can be completed to.
+ * <p>
+ * Completion objects are immutable.
+ *
+ * @see Completer
+ */
+public final class Completion {
+
+	/**
+	 * What the word at the cursor is.
+	 */
+	public enum Context {
+		/**
+		 * An option, the candidates are option names with their prefix.
+		 */
+		OPTION,
+		/**
+		 * The argument of the option returned by getOption().  The
+		 * candidates are empty; only the program knows the values it
+		 * accepts.
+		 */
+		ARGUMENT,
+		/**
+		 * The name of a command of a CommandTree, the candidates are the
+		 * command names.
+		 */
+		COMMAND,
+		/**
+		 * An operand.  The candidates are empty.
+		 */
+		OPERAND
+	}
+
+	private final Context context;
+	private final String word;
+	private final String option;
+	private final String argument;
+	private final List<String> candidates;
+	private final List<String> commandPath;
+
+	Completion(final Context context, final String word, final String option, final String argument, final List<String> candidates,
+			final List<String> commandPath) {
+		this.context = context;
+		this.word = word;
+		this.option = option;
+		this.argument = argument;
+		this.candidates = candidates.isEmpty() ? Collections.<String>emptyList() : Collections.unmodifiableList(candidates);
+		this.commandPath = commandPath.isEmpty() ? Collections.<String>emptyList()
+				: Collections.unmodifiableList(new ArrayList<>(commandPath));
+	}
+
+	public Context getContext() {
+		return this.context;
+	}
+
+	/**
+	 * Returns the word at the cursor, as typed so far.
+	 */
+	public String getWord() {
+		return this.word;
+	}
+
+	/**
+	 * Returns the words the word at the cursor can be completed to, each
+	 * starting with the word, options in the order of the option string
+	 * followed by long options and commands sorted by name.
+	 */
+	public List<String> getCandidates() {
+		return this.candidates;
+	}
+
+	/**
+	 * Returns the option whose argument is being completed, as a long
+	 * option name or a single option character, or null if the context is
+	 * not ARGUMENT.
+	 */
+	public String getOption() {
+		return this.option;
+	}
+
+	/**
+	 * Returns the part of the option argument typed so far.  This differs
+	 * from the word if the argument is in the same word as the option, as
+	 * in "--output=fi" or "-ofi".  Null if the context is not ARGUMENT.
+	 */
+	public String getArgument() {
+		return this.argument;
+	}
+
+	/**
+	 * Returns the names of the commands selected before the cursor,
+	 * outermost first.
+	 */
+	public List<String> getCommandPath() {
+		return this.commandPath;
+	}
+
+	@Override
+	public String toString() {
+		return this.context + " " + this.candidates;
+	}
+}
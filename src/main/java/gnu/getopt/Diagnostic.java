@@ -0,0 +1,118 @@
+package gnu.getopt;
+
+/**
+ * An error found by getopt(), as passed to a DiagnosticSink.  Besides the
+ * kind of error it records the option concerned and the index in argv of
+ * the element in which the error was found.  The localized message is
+ * built when getMessage() is first called.
+ *
+ * @see DiagnosticSink
+ */
+public final class Diagnostic {
+
+	/**
+	 * The kinds of error getopt() reports.
+	 */
+	public enum Kind {
+		/**
+		 * An abbreviated long option name matches more than one long option.
+		 */
+		AMBIGUOUS,
+		/**
+		 * A long option that takes no argument was given one.
+		 */
+		ARGUMENT_NOT_ALLOWED,
+		/**
+		 * An option that requires an argument is the last element of argv.
+		 */
+		REQUIRES_ARGUMENT,
+		/**
+		 * A long option name is not known.
+		 */
+		UNRECOGNIZED,
+		/**
+		 * An option character is not in the option string.
+		 */
+		INVALID,
+		/**
+		 * The argument of an option cannot be converted to the ValueType
+		 * declared for it.
+		 */
+		INVALID_VALUE,
+		/**
+		 * The operand where CommandTree.parse() expects a command name is
+		 * not the name of a command.
+		 */
+		UNKNOWN_COMMAND
+	}
+
+	private final Kind kind;
+	private final int argvIndex;
+	private final String option;
+	private final int optopt;
+	private final Messages messages;
+	private final String key;
+	private final Object[] args;
+	private String message;
+
+	Diagnostic(final Kind kind, final int argvIndex, final String option, final int optopt,
+			final Messages messages, final String key, final Object... args) {
+		this.kind = kind;
+		this.argvIndex = argvIndex;
+		this.option = option;
+		this.optopt = optopt;
+		this.messages = messages;
+		this.key = key;
+		this.args = args;
+	}
+
+	/**
+	 * Returns a copy of this diagnostic for the given argv index.
+	 */
+	Diagnostic atArgvIndex(final int argvIndex) {
+		return new Diagnostic(this.kind, argvIndex, this.option, this.optopt, this.messages, this.key, this.args);
+	}
+
+	public Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * Returns the index in argv of the element in which the error was found.
+	 * For a missing argument, this is the element holding the option.
+	 */
+	public int getArgvIndex() {
+		return this.argvIndex;
+	}
+
+	/**
+	 * Returns the option concerned as it appears in the message: an option
+	 * character, a long option name, or for ambiguous and unrecognized long
+	 * options the text the user typed.
+	 */
+	public String getOption() {
+		return this.option;
+	}
+
+	/**
+	 * Returns the value getOptopt() will return after this error.
+	 */
+	public int getOptopt() {
+		return this.optopt;
+	}
+
+	/**
+	 * Returns the localized error message, in the form "program: message".
+	 */
+	public String getMessage() {
+		if (this.message == null) {
+			this.message = this.messages.format(this.key, this.args);
+		}
+		return this.message;
+	}
+
+	@Override
+	public String toString() {
+		return getMessage();
+	}
+}
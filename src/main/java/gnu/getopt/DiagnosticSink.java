@@ -0,0 +1,37 @@
+package gnu.getopt;
+
+/**
+ * Receives the errors Getopt encounters while parsing a command line:
+ * ambiguous or unrecognized options, invalid option characters, missing
+ * arguments and arguments given to options that take none.
+ * <p>
+ * By default every Getopt object reports to STANDARD_ERROR, which prints
+ * the localized message exactly as getopt() always has.  A different sink
+ * can be installed with Getopt.setDiagnosticSink() to collect, log or
+ * ignore the errors.  The message text of a Diagnostic is only formatted
+ * if the sink asks for it.  Note that a sink is not called at all if
+ * error reporting has been switched off with Getopt.setOpterr(false).
+ *
+ * @see Diagnostic
+ */
+@FunctionalInterface
+public interface DiagnosticSink {
+
+	/**
+	 * The default sink, which prints each message to System.err.
+	 */
+	DiagnosticSink STANDARD_ERROR = diagnostic -> System.err.println(diagnostic.getMessage());
+
+	/**
+	 * A sink that discards every diagnostic.
+	 */
+	DiagnosticSink IGNORE = diagnostic -> {};
+
+	/**
+	 * Called by getopt() for every error it finds, before getopt() returns
+	 * '?' or ':' to its caller.
+	 *
+	 * @param diagnostic The error that was found
+	 */
+	void report(Diagnostic diagnostic);
+}
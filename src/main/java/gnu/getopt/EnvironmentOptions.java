@@ -0,0 +1,94 @@
+package gnu.getopt;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default options taken from an environment variable, in the manner of
+ * GREP_OPTIONS or JAVA_TOOL_OPTIONS.  The value of the variable is split
+ * into arguments with the rules of response files (whitespace separates,
+ * quotes group, backslash escapes) and the arguments are put in front of
+ * argv, so they are parsed by the same rules and can be overridden by
+ * later options on the command line:
+ * <p>
+ * <pre>
+ * Getopt g = SCHEMA.parser(EnvironmentOptions.prepend("TESTPROG_OPTIONS", argv));
+ * </pre>
+ * <p>
+ * The environment of a process does not change, so each variable is read
+ * and split only once, the first time it is asked for, and the arguments
+ * are kept for every later parse.  The argv indexes Getopt reports then
+ * count the prepended arguments; get(variable).length of them come
+ * before the first element of the original argv.
+ */
+public final class EnvironmentOptions {
+
+	private static final String[] NONE = new String[0];
+
+	/**
+	 * The split value of every variable asked for so far
+	 */
+	private static final ConcurrentMap<String, String[]> CACHE = new ConcurrentHashMap<>();
+
+	private EnvironmentOptions() {
+	}
+
+	/**
+	 * Returns the arguments in the environment variable, or an empty array
+	 * if it is not set.
+	 *
+	 * @param variable The name of the environment variable
+	 *
+	 * @return A copy of the cached arguments
+	 */
+	public static String[] get(final String variable) {
+		final String[] args = cached(variable);
+		return args.length == 0 ? args : args.clone();
+	}
+
+	/**
+	 * Returns the arguments in the environment variable followed by argv.
+	 *
+	 * @param variable The name of the environment variable
+	 * @param argv The String array passed as the command line to the program
+	 *
+	 * @return A new array, or argv itself if the variable has no arguments
+	 */
+	public static String[] prepend(final String variable, final String[] argv) {
+		return prepend(cached(variable), argv);
+	}
+
+	/**
+	 * Split a string into arguments like the value of an environment
+	 * variable, without caching.
+	 *
+	 * @param value The string to split
+	 *
+	 * @return The arguments
+	 */
+	public static String[] tokenize(final String value) {
+		final List<String> args = new ArrayList<>();
+		for (final ArgumentTokenizer tokenizer = new ArgumentTokenizer(CharBuffer.wrap(value)); tokenizer.hasNext();) {
+			args.add(tokenizer.next());
+		}
+		return args.isEmpty() ? EnvironmentOptions.NONE : args.toArray(new String[args.size()]);
+	}
+
+	static String[] cached(final String variable) {
+		return EnvironmentOptions.CACHE.computeIfAbsent(variable, name -> {
+			final String value = System.getenv(name);
+			return value == null ? EnvironmentOptions.NONE : tokenize(value);
+		});
+	}
+
+	static String[] prepend(final String[] args, final String[] argv) {
+		if (args.length == 0) { return argv; }
+		final String[] result = new String[args.length + argv.length];
+		System.arraycopy(args, 0, result, 0, args.length);
+		System.arraycopy(argv, 0, result, args.length, argv.length);
+		return result;
+	}
+}
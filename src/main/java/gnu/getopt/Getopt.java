@@ -1,9 +1,6 @@
 package gnu.getopt;
 
-import java.text.MessageFormat;
-import java.util.Locale;
-import java.util.ResourceBundle;
-import java.util.function.BiFunction;
+import java.util.Arrays;
 
 /**
  * This is a Java port of GNU getopt, a class for parsing command line
@@ -32,7 +29,9 @@ import java.util.function.BiFunction;
  * which can be retrieved using the getOptopt() method.  To suppress
  * the printing of error messages for this or any other error, set
  * the value of the opterr instance variable to false using the
- * setOpterr() method.
+ * setOpterr() method.  To handle the errors in some other way, for
+ * example to log them, install a DiagnosticSink with the
+ * setDiagnosticSink() method.
  * <p>
  * Between calls to getopt(), the instance variable optind is used to
  * keep track of where the object is in the parsing process.  After all
@@ -328,6 +327,11 @@ import java.util.function.BiFunction;
  * It does not cause only long options to be parsed but instead enables
  * the behavior described above.
  * <p>
+ * All of the constructors compile the option string and long options into
+ * an OptionSchema.  A program that parses many argument vectors against
+ * the same options can compile the OptionSchema once and obtain a new
+ * Getopt object for each argument vector from OptionSchema.parser().
+ * <p>
  * Note that the functionality and variable names used are driven from
  * the C lib version as this object is a port of the C code, not a
  * new implementation.  This should aid in porting existing C/C++ code,
@@ -350,47 +354,6 @@ import java.util.function.BiFunction;
  */
 public class Getopt {
 
-	/*
-	 * Class Variables
-	 */
-	/**
-	 * Describe how to deal with options that follow non-option ARGV-elements.
-	 * If the caller did not specify anything,
-	 * the default is REQUIRE_ORDER if the property
-	 * gnu.posixly_correct is defined, PERMUTE otherwise.
-	 * The special argument `--' forces an end of option-scanning regardless
-	 * of the value of `ordering'.  In the case of RETURN_IN_ORDER, only
-	 * `--' can cause `getopt' to return -1 with `optind' != ARGC.
-	 * REQUIRE_ORDER means don't recognize them as options;
-	 * stop option processing when the first non-option is seen.
-	 * This is what Unix does.
-	 * This mode of operation is selected by either setting the property
-	 * gnu.posixly_correct, or using `+' as the first character
-	 * of the list of option characters.
-	 */
-	private static final int REQUIRE_ORDER = 1;
-	/**
-	 * PERMUTE is the default.  We permute the contents of ARGV as we scan,
-	 * so that eventually all the non-options are at the end.  This allows options
-	 * to be given in any order, even with programs that were not written to
-	 * expect this.
-	 */
-	private static final int PERMUTE = 2;
-	/**
-	 * RETURN_IN_ORDER is an option available to programs that were written
-	 * to expect options and other ARGV-elements in any order and that care about
-	 * the ordering of the two.  We describe each non-option ARGV-element
-	 * as if it were the argument of an option with character code 1.
-	 * Using `-' as the first character of the list of option characters
-	 * selects this mode of operation.
-	 */
-	private static final int RETURN_IN_ORDER = 3;
-
-	private static final String DEF_NAME_VALUE_SEPARATOR = "=";
-	private static final String DEF_LONG_OPTION_PREFIX = "--";
-	private static final String DEF_NON_OPTION_SEPARATOR = "--";
-	private static final char DEF_SHORT_OPTION_PREFIX = '-';
-
 	/*
 	 * Instance Variables
 	 */
@@ -402,6 +365,26 @@ public class Getopt {
 	 * each non-option ARGV-element is returned here.
 	 */
 	private String optarg;
+	/**
+	 * The ARGV-element optarg is taken from and the offset into it at which
+	 * the argument starts.  The optarg String itself is only built when
+	 * the caller asks for it.
+	 */
+	private String optargElement;
+	private int optargIndex;
+	/**
+	 * The ARGV-element holding the name of the option last returned and
+	 * the region of the name in it: the long option name as typed, or the
+	 * short option character
+	 */
+	private String nameElement;
+	private int nameStart;
+	private int nameEnd;
+	/**
+	 * The views handed out by getOptargView() and getOptionNameView()
+	 */
+	private final ArgumentView optargView = new ArgumentView();
+	private final ArgumentView nameView = new ArgumentView();
 	/**
 	 * Index in ARGV of the next element to be scanned.
 	 * This is used for communication to and from the caller
@@ -418,40 +401,63 @@ public class Getopt {
 	 * for unrecognized options.
 	 */
 	private boolean opterr = true;
+	/**
+	 * Where errors are reported to if opterr is true
+	 */
+	private DiagnosticSink diagnosticSink = DiagnosticSink.STANDARD_ERROR;
+	/**
+	 * Receives instrumentation events, null if there is no instrumentation
+	 */
+	private ParseListener parseListener;
+	/**
+	 * The error found by the current call to getopt(), whether or not it
+	 * is reported.  Only reset and read if parseListener is set.
+	 */
+	private Diagnostic.Kind failure;
+	/**
+	 * What parseListener is told at the end of the scan
+	 */
+	private int parsedOptions;
+	private int parseErrors;
+	private long parseNanos;
+	private boolean parseCompleted;
+	/**
+	 * Whether the val of a long option is stored in its flag array
+	 */
+	private boolean storeFlags = true;
 	/**
 	 * When an unrecognized option is encountered, getopt will return a '?'
 	 * and store the value of the invalid option here.
 	 */
 	private int optopt = '?';
 	/**
-	 * The next char to be scanned in the option-element
-	 * in which the last option character we returned was found.
+	 * The option-element in which the last option character we returned
+	 * was found, and the index in it of the next char to be scanned.
 	 * This allows us to pick up the scan where we left off.
-	 * If this is zero, or a null string, it means resume the scan
-	 * by advancing to the next ARGV-element.
+	 * If this is null, or nextcharIndex is at its end, it means resume
+	 * the scan by advancing to the next ARGV-element.
 	 */
 	private String nextchar;
+	private int nextcharIndex;
 	/**
-	 * This is the string describing the valid short options.
-	 */
-	private String optstring;
-	/**
-	 * This is an array of LongOpt objects which describ the valid long
-	 * options.
+	 * Stores the index into the long_options array of the long option found
 	 */
-	private final LongOpt[] longOptions;
+	private int longind;
 	/**
-	 * This flag determines whether or not we are parsing only long args
+	 * The index in argv of the element the option last returned was found in
 	 */
-	private final boolean longOnly;
+	private int optionElement;
 	/**
-	 * Stores the index into the long_options array of the long option found
+	 * The index into the long option array of the long option last
+	 * returned, or -1 if the last call to getopt() did not resolve one.
+	 * Unlike longind this is reset by every call.
 	 */
-	private int longind;
+	private int resolvedLongind = -1;
 	/**
-	 * The flag determines whether or not we operate in strict POSIX compliance
+	 * Set if the last call to getopt() returned a non-option ARGV-element
+	 * in RETURN_IN_ORDER mode
 	 */
-	private final boolean posixlyCorrect;
+	private boolean returnedNonoption;
 	/**
 	 * A flag which communicates whether or not checkLongOption() did all
 	 * necessary processing for the current option
@@ -465,6 +471,17 @@ public class Getopt {
 	 * The index of the last non-option in argv[]
 	 */
 	private int lastNonopt = 1;
+	/**
+	 * Whether PERMUTE mode moves the non-options once at the end of the
+	 * scan instead of after every option, see setDeferredPermutation()
+	 */
+	private boolean deferredPermutation;
+	/**
+	 * The indices in argv of the non-options skipped so far, in ascending
+	 * order, when the permutation is deferred
+	 */
+	private int[] skipped;
+	private int skippedCount;
 	/**
 	 * Flag to tell getopt to immediately return -1 the next time it is
 	 * called.
@@ -475,28 +492,9 @@ public class Getopt {
 	 */
 	private String[] argumentVector;
 	/**
-	 * Determines whether we permute arguments or not
-	 */
-	private final int ordering;
-	/**
-	 * Name to print as the program name in error messages.  This is necessary
-	 * since Java does not place the program name in argv[0]
+	 * The compiled option definitions this object parses against
 	 */
-	private final String progname;
-	/**
-	 * The localized strings are kept in a separate file
-	 */
-	private ResourceBundle messages = ResourceBundle.getBundle("gnu/getopt/MessagesBundle", Locale.getDefault());
-
-	private final String nameValueSeparator;
-	private final String longOptionPrefix;
-	private final String nonOptionSeparator;
-	private final char optionPrefix;
-	private final String optionPrefixStr;
-	private final boolean ignoreOptionCase;
-	private final BiFunction<String,String,Boolean> nameEqualsFunction;
-	private final BiFunction<String,String,Boolean> nameStartsWithFunction;
-	private final BiFunction<String,Integer,Integer> indexOfFunction;
+	private OptionSchema schema;
 
 	/*
 	 * Constructors
@@ -510,7 +508,7 @@ public class Getopt {
 	 * @param optstring A String containing a description of the valid args for this program
 	 */
 	public static Getopt createGnu(final String progname, final String[] argv, final String optstring) {
-		return new Getopt(progname, argv, optstring, null, false, Getopt.DEF_SHORT_OPTION_PREFIX, Getopt.DEF_LONG_OPTION_PREFIX, Getopt.DEF_NAME_VALUE_SEPARATOR, false);
+		return new Getopt(progname, argv, optstring, null, false, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
 	}
 
 	/**
@@ -524,7 +522,7 @@ public class Getopt {
 	 */
 	public static Getopt createGnu(final String progname, final String[] argv, final String optstring,
 			final LongOpt... longOptions) {
-		return new Getopt(progname, argv, optstring, longOptions, false, Getopt.DEF_SHORT_OPTION_PREFIX, Getopt.DEF_LONG_OPTION_PREFIX, Getopt.DEF_NAME_VALUE_SEPARATOR, false);
+		return new Getopt(progname, argv, optstring, longOptions, false, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
 	}
 
 	/**
@@ -539,7 +537,7 @@ public class Getopt {
 	 */
 	public static Getopt createGnu(final String progname, final String[] argv, final String optstring, final boolean longOnly,
 			final LongOpt... longOptions) {
-		return new Getopt(progname, argv, optstring, longOptions, longOnly, Getopt.DEF_SHORT_OPTION_PREFIX, Getopt.DEF_LONG_OPTION_PREFIX, Getopt.DEF_NAME_VALUE_SEPARATOR, false);
+		return new Getopt(progname, argv, optstring, longOptions, longOnly, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
 	}
 
 
@@ -568,7 +566,7 @@ public class Getopt {
 	 * @param longOnly true if long options that do not conflict with short options can start with a '-' as well as '--'
 	 */
 	public Getopt(final String progname, final String[] argv, final String optstring, final LongOpt[] longOptions, final boolean longOnly) {
-		this(progname, argv, optstring, longOptions, longOnly, Getopt.DEF_SHORT_OPTION_PREFIX, Getopt.DEF_LONG_OPTION_PREFIX, Getopt.DEF_NAME_VALUE_SEPARATOR, false);
+		this(progname, argv, optstring, longOptions, longOnly, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
 	}
 
 	/**
@@ -580,7 +578,7 @@ public class Getopt {
 	 * @param longOptions An array of LongOpt objects that describes the valid long args for this program
 	 */
 	public Getopt(final String progname, final String[] argv, final String optstring, final LongOpt... longOptions) {
-		this(progname, argv, optstring, longOptions, false, Getopt.DEF_SHORT_OPTION_PREFIX, Getopt.DEF_LONG_OPTION_PREFIX, Getopt.DEF_NAME_VALUE_SEPARATOR, false);
+		this(progname, argv, optstring, longOptions, false, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
 	}
 
 	/**
@@ -597,50 +595,24 @@ public class Getopt {
 	 * @param longOptions An array of LongOpt objects that describes the valid long args for this program
 	 * @param longOnly true if long options that do not conflict with short options can start with a '-' as well as '--'
 	 */
-	public Getopt(final String progname, final String[] argv, String optstring,
+	public Getopt(final String progname, final String[] argv, final String optstring,
 			final LongOpt[] longOptions, final boolean longOnly, final char shortOptionPrefix, final String longOptionPrefix, final String nameValueSeparator, final boolean ignoreOptionCase) {
-		this.optionPrefixStr = new String(new char[] {shortOptionPrefix});
-		this.optionPrefix = shortOptionPrefix;
-		this.longOptionPrefix = longOptionPrefix;
-		this.nameValueSeparator = nameValueSeparator;
-		this.ignoreOptionCase = ignoreOptionCase;
-		if(ignoreOptionCase) {
-			this.nameEqualsFunction = String::equalsIgnoreCase;
-			this.nameStartsWithFunction = (a,b) -> a.toLowerCase().startsWith(b.toLowerCase());
-			this.indexOfFunction = (s,c) -> s.toLowerCase().indexOf(Character.toLowerCase(c));
-		} else {
-			this.nameEqualsFunction = String::equals;
-			this.nameStartsWithFunction = String::startsWith;
-			this.indexOfFunction = String::indexOf;
-		}
-		this.nonOptionSeparator = Getopt.DEF_NON_OPTION_SEPARATOR;
-		if (optstring.length() == 0) { optstring = " "; }
-		// This function is essentially _getopt_initialize from GNU getopt
-		this.progname = progname;
+		this(new OptionSchema(progname, optstring, longOptions, longOnly, shortOptionPrefix, longOptionPrefix, nameValueSeparator, ignoreOptionCase), argv);
+	}
+
+	/**
+	 * Construct a Getopt instance that parses the given argument vector
+	 * against a previously compiled OptionSchema.  This is what
+	 * OptionSchema.parser() does, and it is much cheaper than the other
+	 * constructors since no option definitions need to be examined.
+	 *
+	 * @param schema The compiled option definitions
+	 * @param argv The String array passed as the command line to the program
+	 */
+	public Getopt(final OptionSchema schema, final String[] argv) {
+		this.schema = schema;
 		this.argumentVector = argv;
-		this.optstring = optstring;
-		this.longOptions = longOptions;
-		this.longOnly = longOnly;
-		// Check for property "gnu.posixly_correct" to determine whether to
-		// strictly follow the POSIX standard.  This replaces the "POSIXLY_CORRECT"
-		// environment variable in the C version
-		if (System.getProperty("gnu.posixly_correct", null) == null) { this.posixlyCorrect = false; } else {
-			this.posixlyCorrect = true;
-			this.messages = ResourceBundle.getBundle("gnu/getopt/MessagesBundle",
-					Locale.US);
-		}
-		// Determine how to handle the ordering of options and non-options
-		if (optstring.charAt(0) == '-') {
-			this.ordering = Getopt.RETURN_IN_ORDER;
-			if (optstring.length() > 1) { this.optstring = optstring.substring(1); }
-		} else if (optstring.charAt(0) == '+') {
-			this.ordering = Getopt.REQUIRE_ORDER;
-			if (optstring.length() > 1) { this.optstring = optstring.substring(1); }
-		} else if (this.posixlyCorrect) {
-			this.ordering = Getopt.REQUIRE_ORDER;
-		} else {
-			this.ordering = Getopt.PERMUTE; // The normal default case
-		}
+		this.parseListener = schema.parseListener();
 	}
 
 	/*
@@ -656,9 +628,8 @@ public class Getopt {
 	 * @param optstring The new option string to use
 	 */
 	public void
-	setOptstring(String optstring) {
-		if (optstring.length() == 0) { optstring = " "; }
-		this.optstring = optstring;
+	setOptstring(final String optstring) {
+		this.schema = this.schema.withOptstring(optstring);
 	}
 
 	/**
@@ -712,9 +683,84 @@ public class Getopt {
 	 */
 	public String
 	getOptarg() {
+		if (this.optarg == null && this.optargElement != null) {
+			this.optarg = this.optargIndex == 0 ? this.optargElement : this.optargElement.substring(this.optargIndex);
+		}
 		return this.optarg;
 	}
 
+	/**
+	 * Returns the same characters as getOptarg(), but as a view of the
+	 * argv element instead of a new String.  The view is reused: it is only
+	 * valid until the next call to getopt(), after which it shows the next
+	 * argument.  Call toString() on it to keep the value.
+	 *
+	 * @return The argument of the option last returned, or null
+	 */
+	public CharSequence
+	getOptargView() {
+		if (this.optargElement == null) { return null; }
+		return this.optargView.set(this.optargElement, this.optargIndex, this.optargElement.length());
+	}
+
+	/**
+	 * Returns the name of the option last returned as a view of the argv
+	 * element: for a long option the name as the user typed it, possibly
+	 * abbreviated and without prefix or argument, for a short option the
+	 * option character.  The view is only valid until the next call to
+	 * getopt().
+	 *
+	 * @return The option name, or null if the last call returned no option
+	 */
+	public CharSequence
+	getOptionNameView() {
+		if (this.nameElement == null) { return null; }
+		return this.nameView.set(this.nameElement, this.nameStart, this.nameEnd);
+	}
+
+	/**
+	 * Parse the argument of the option last returned as a decimal int,
+	 * like Integer.parseInt(getOptarg()) but without creating the String.
+	 *
+	 * @return The value of the argument
+	 *
+	 * @throws NumberFormatException If there is no argument or it is not a valid int
+	 */
+	public int
+	getOptargInt() {
+		requireOptarg();
+		return ArgumentView.parseInt(this.optargElement, this.optargIndex, this.optargElement.length());
+	}
+
+	/**
+	 * Parse the argument of the option last returned as a decimal long,
+	 * like Long.parseLong(getOptarg()) but without creating the String.
+	 *
+	 * @return The value of the argument
+	 *
+	 * @throws NumberFormatException If there is no argument or it is not a valid long
+	 */
+	public long
+	getOptargLong() {
+		requireOptarg();
+		return ArgumentView.parseLong(this.optargElement, this.optargIndex, this.optargElement.length());
+	}
+
+	/**
+	 * Parse the argument of the option last returned as a double, like
+	 * Double.parseDouble(getOptarg()).  Plain decimal numbers are parsed
+	 * without creating a String.
+	 *
+	 * @return The value of the argument
+	 *
+	 * @throws NumberFormatException If there is no argument or it is not a valid double
+	 */
+	public double
+	getOptargDouble() {
+		requireOptarg();
+		return ArgumentView.parseDouble(this.optargElement, this.optargIndex, this.optargElement.length());
+	}
+
 	/**
 	 * Normally Getopt will print a message to the standard error when an
 	 * invalid option is encountered.  This can be suppressed (or re-enabled)
@@ -726,6 +772,89 @@ public class Getopt {
 		this.opterr = opterr;
 	}
 
+	/**
+	 * Install the DiagnosticSink that errors are reported to instead of
+	 * printing them to the standard error.  Reporting can still be
+	 * switched off completely with setOpterr(false).
+	 *
+	 * @param diagnosticSink The new sink, DiagnosticSink.STANDARD_ERROR by default
+	 */
+	public void setDiagnosticSink(final DiagnosticSink diagnosticSink) {
+		this.diagnosticSink = diagnosticSink;
+	}
+
+	/**
+	 * Install the ParseListener that is told about the options and errors
+	 * getopt() finds and the time it takes, replacing the listener of the
+	 * schema.  Events are delivered whether or not errors are reported, so
+	 * this does not depend on setOpterr().
+	 *
+	 * @param parseListener The new listener, or null to switch instrumentation off
+	 */
+	public void setParseListener(final ParseListener parseListener) {
+		this.parseListener = parseListener;
+	}
+
+	/**
+	 * Normally, when a long option with a non-null flag is found, getopt()
+	 * stores the val of the LongOpt in the flag array and returns 0.  The
+	 * flag arrays belong to the LongOpt objects and are therefore shared by
+	 * every Getopt object parsing with them, possibly from other threads.
+	 * Passing false here makes getopt() return 0 without touching the flag
+	 * array; the option can still be identified with getLongind().
+	 *
+	 * @param storeFlags false to leave the flag arrays alone
+	 */
+	public void setStoreFlags(final boolean storeFlags) {
+		this.storeFlags = storeFlags;
+	}
+
+	/**
+	 * In PERMUTE mode, getopt() normally moves the non-options it has
+	 * skipped behind every group of options it has scanned, so an argv in
+	 * which options and operands alternate takes a quadratic number of
+	 * moves.  Passing true here makes getopt() only remember the indices of
+	 * the skipped non-options and move everything once, in linear time,
+	 * when the scan ends.  The argv and optind after getopt() has returned
+	 * -1 are the same as without deferring; only while the scan is in
+	 * progress argv is still in its original order.
+	 *
+	 * @param deferredPermutation true to permute argv once at the end
+	 */
+	public void setDeferredPermutation(final boolean deferredPermutation) {
+		this.deferredPermutation = deferredPermutation;
+	}
+
+	/**
+	 * Report that the argument of the option last returned by getopt()
+	 * cannot be used, for callers that convert arguments themselves.  Like
+	 * the errors getopt() finds, this is passed to the DiagnosticSink as a
+	 * Diagnostic, of kind INVALID_VALUE, unless opterr is false.
+	 */
+	public void
+	reportInvalidValue() {
+		if (this.parseListener != null && this.nameElement != null) {
+			this.parseErrors++;
+			this.parseListener.errorFound(Diagnostic.Kind.INVALID_VALUE);
+		}
+		if (!this.opterr || this.nameElement == null) { return; }
+		final String name;
+		final String spelled;
+		final int option;
+		if (this.resolvedLongind >= 0) {
+			final LongOpt longOpt = this.schema.longOptions()[this.resolvedLongind];
+			name = longOpt.name;
+			spelled = this.schema.getLongOptionPrefix() + name;
+			option = longOpt.val;
+		} else {
+			option = this.nameElement.charAt(this.nameStart);
+			name = Character.toString((char)option);
+			spelled = this.schema.getOptionPrefix() + name;
+		}
+		report(Diagnostic.Kind.INVALID_VALUE, this.optionElement, name, option,
+				"getopt.invalidArgument", this.schema.getProgname(), getOptarg(), spelled);
+	}
+
 	/**
 	 * When getopt() encounters an invalid option, it stores the value of that
 	 * option in optopt which can be retrieved with this method.  There is
@@ -745,24 +874,31 @@ public class Getopt {
 		return this.longind;
 	}
 
+	/**
+	 * Returns the compiled option definitions this object parses against.
+	 */
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
 	public String getNameValueSeparator() {
-		return this.nameValueSeparator;
+		return this.schema.getNameValueSeparator();
 	}
 
 	public String getLongOptionPrefix() {
-		return this.longOptionPrefix;
+		return this.schema.getLongOptionPrefix();
 	}
 
 	public String getNonOptionSeparator() {
-		return this.nonOptionSeparator;
+		return this.schema.getNonOptionSeparator();
 	}
 
 	public char getOptionPrefix() {
-		return this.optionPrefix;
+		return this.schema.getOptionPrefix();
 	}
 
 	public boolean isIgnoreOptionCase() {
-		return this.ignoreOptionCase;
+		return this.schema.isIgnoreOptionCase();
 	}
 
 	/**
@@ -810,6 +946,57 @@ public class Getopt {
 		this.lastNonopt = this.optind;
 	}
 
+	/**
+	 * The PERMUTE step of getopt() when the permutation is deferred: skip
+	 * and remember any non-options, and if that reaches the end of argv or
+	 * a `--', move the options scanned since the first skipped non-option
+	 * in front of the non-options.  firstNonopt and lastNonopt are then set
+	 * to the slots the non-options occupy, as exchange() and the skip loop
+	 * would have left them.
+	 */
+	private void
+	skipNonoptions() {
+		// The caller may have moved optind back with setOptind()
+		while (this.skippedCount > 0 && this.skipped[this.skippedCount - 1] >= this.optind) { this.skippedCount--; }
+		while (this.optind < this.argumentVector.length && this.schema.isNonoption(this.argumentVector[this.optind])) {
+			if (this.skipped == null) {
+				this.skipped = new int[8];
+			} else if (this.skippedCount == this.skipped.length) {
+				this.skipped = Arrays.copyOf(this.skipped, this.skippedCount * 2);
+			}
+			this.skipped[this.skippedCount++] = this.optind++;
+		}
+		// getopt() moves the `--' itself in front of the non-options
+		if (this.optind == this.argumentVector.length || this.argumentVector[this.optind].equals(this.schema.getNonOptionSeparator())) {
+			permuteSkipped(this.optind);
+		}
+	}
+
+	/**
+	 * Stable partition of argv[skipped[0]..end): the elements that were
+	 * not skipped keep their order and come first, followed by the skipped
+	 * non-options in their order.
+	 */
+	private void
+	permuteSkipped(final int end) {
+		if (this.skippedCount == 0) {
+			this.firstNonopt = end;
+			this.lastNonopt = end;
+			return;
+		}
+		final String[] argv = this.argumentVector;
+		final String[] nonoptions = new String[this.skippedCount];
+		int write = this.skipped[0];
+		int s = 0;
+		for (int i = this.skipped[0]; i < end; i++) {
+			if (s < this.skippedCount && this.skipped[s] == i) { nonoptions[s++] = argv[i]; } else { argv[write++] = argv[i]; }
+		}
+		System.arraycopy(nonoptions, 0, argv, write, this.skippedCount);
+		this.firstNonopt = write;
+		this.lastNonopt = end;
+		this.skippedCount = 0;
+	}
+
 	/**
 	 * Check to see if an option is a valid long option.  Called by getopt().
 	 * Put in a separate method because this needs to be done twice.  (The
@@ -819,95 +1006,78 @@ public class Getopt {
 	 */
 	private int
 	checkLongOption() {
-		LongOpt pfound = null;
-		int nameend;
-		boolean ambig;
-		boolean exact;
+		final LongOpt pfound;
+		final int nameend;
 		this.longoptHandled = true;
-		ambig = false;
-		exact = false;
 		this.longind = -1;
-		nameend = this.nextchar.indexOf(this.nameValueSeparator);
-		if (nameend == -1) { nameend = this.nextchar.length(); }
-		// Test all lnog options for either exact match or abbreviated matches
-		for (int i = 0; i < this.longOptions.length; i++) {
-			if (this.nameStartsWithFunction.apply(this.longOptions[i].getName(), this.nextchar.substring(0, nameend))) {
-				if (this.nameEqualsFunction.apply(this.longOptions[i].getName(), this.nextchar.substring(0, nameend))) {
-					// Exact match found
-					pfound = this.longOptions[i];
-					this.longind = i;
-					exact = true;
-					break;
-				} else if (pfound == null) {
-					// First nonexact match found
-					pfound = this.longOptions[i];
-					this.longind = i;
-				} else {
-					// Second or later nonexact match found
-					ambig = true;
-				}
-			}
-		} // for
+		final int sep = this.nextchar.indexOf(this.schema.getNameValueSeparator(), this.nextcharIndex);
+		nameend = sep == -1 ? this.nextchar.length() : sep;
+		setName(this.nextchar, this.nextcharIndex, nameend);
+		// Look up the name for either an exact match or an unambiguous abbreviation
+		final int found = this.schema.lookupLongOption(this.nextchar, this.nextcharIndex, nameend);
+		if (found >= 0) {
+			pfound = this.schema.longOptions()[found];
+			this.longind = found;
+		} else {
+			pfound = null;
+			if (found == SortedLongOptions.AMBIGUOUS) { this.longind = this.schema.firstAbbreviatedLongOption(this.nextchar, this.nextcharIndex, nameend); }
+		}
 		// Print out an error if the option specified was ambiguous
-		if (ambig && !exact) {
+		if (found == SortedLongOptions.AMBIGUOUS) {
+			this.failure = Diagnostic.Kind.AMBIGUOUS;
 			if (this.opterr) {
-				final Object[] msgArgs = {this.progname, this.argumentVector[this.optind]};
-				System.err.println(MessageFormat.format(
-						this.messages.getString("getopt.ambigious"),
-						msgArgs));
+				report(Diagnostic.Kind.AMBIGUOUS, this.optind, this.argumentVector[this.optind], 0,
+						"getopt.ambigious", this.schema.getProgname(), this.argumentVector[this.optind]);
 			}
-			this.nextchar = "";
+			this.nextchar = null;
 			this.optopt = 0;
 			++this.optind;
 			return '?';
 		}
 		if (pfound != null) {
+			this.resolvedLongind = found;
 			++this.optind;
 			if (nameend != this.nextchar.length()) {
 				if (pfound.hasArg != LongOpt.NO_ARGUMENT) {
-					if (this.nextchar.substring(nameend).length() > 1) { this.optarg = this.nextchar.substring(nameend + 1); } else { this.optarg = ""; }
+					setOptarg(this.nextchar, nameend + 1);
 				} else {
+					this.failure = Diagnostic.Kind.ARGUMENT_NOT_ALLOWED;
 					if (this.opterr) {
 						// -- option
-						if (this.argumentVector[this.optind - 1].startsWith(this.longOptionPrefix)) {
-							final Object[] msgArgs = {this.progname, pfound.name};
-							System.err.println(MessageFormat.format(
-									this.messages.getString("getopt.arguments1"),
-									msgArgs));
+						if (this.argumentVector[this.optind - 1].startsWith(this.schema.getLongOptionPrefix())) {
+							report(Diagnostic.Kind.ARGUMENT_NOT_ALLOWED, this.optind - 1, pfound.name, pfound.val,
+									"getopt.arguments1", this.schema.getProgname(), pfound.name);
 						}
 						// +option or -option
 						else {
-							final Object[] msgArgs = {this.progname, Character.toString(this.argumentVector[this.optind - 1].charAt(0)),
-									pfound.name};
-							System.err.println(MessageFormat.format(
-									this.messages.getString("getopt.arguments2"),
-									msgArgs));
+							report(Diagnostic.Kind.ARGUMENT_NOT_ALLOWED, this.optind - 1, pfound.name, pfound.val,
+									"getopt.arguments2", this.schema.getProgname(), Character.toString(this.argumentVector[this.optind - 1].charAt(0)),
+									pfound.name);
 						}
 					}
-					this.nextchar = "";
+					this.nextchar = null;
 					this.optopt = pfound.val;
 					return '?';
 				}
 			} // if (nameend)
 			else if (pfound.hasArg == LongOpt.REQUIRED_ARGUMENT) {
 				if (this.optind < this.argumentVector.length) {
-					this.optarg = this.argumentVector[this.optind];
+					setOptarg(this.argumentVector[this.optind], 0);
 					++this.optind;
 				} else {
+					this.failure = Diagnostic.Kind.REQUIRES_ARGUMENT;
 					if (this.opterr) {
-						final Object[] msgArgs = {this.progname, this.argumentVector[this.optind - 1]};
-						System.err.println(MessageFormat.format(
-								this.messages.getString("getopt.requires"),
-								msgArgs));
+						report(Diagnostic.Kind.REQUIRES_ARGUMENT, this.optind - 1, this.argumentVector[this.optind - 1], pfound.val,
+								"getopt.requires", this.schema.getProgname(), this.argumentVector[this.optind - 1]);
 					}
-					this.nextchar = "";
+					this.nextchar = null;
 					this.optopt = pfound.val;
-					if (this.optstring.charAt(0) == ':') { return ':'; } else { return '?'; }
+					if (this.schema.getOptstring().charAt(0) == ':') { return ':'; } else { return '?'; }
 				}
 			} // else if (pfound)
-			this.nextchar = "";
+			this.nextchar = null;
 			if (pfound.flag != null) {
-				pfound.flag[0] = pfound.val;
+				if (this.storeFlags) { pfound.flag[0] = pfound.val; }
 				return 0;
 			}
 			return pfound.val;
@@ -932,21 +1102,70 @@ public class Getopt {
 	 */
 	public int
 	getopt() {
+		return this.parseListener == null ? nextOption() : instrumentedGetopt();
+	}
+
+	/**
+	 * getopt() with a ParseListener: time the call, classify its result
+	 * and pass it on.
+	 */
+	private int instrumentedGetopt() {
+		final long start = System.nanoTime();
+		this.failure = null;
+		final int c = nextOption();
+		this.parseNanos += System.nanoTime() - start;
+		if (this.failure != null) {
+			this.parseErrors++;
+			this.parseListener.errorFound(this.failure);
+		} else if (c == -1) {
+			completeParse(this.argumentVector.length);
+		} else if (!this.returnedNonoption) {
+			this.parsedOptions++;
+			if (this.resolvedLongind >= 0 && this.nameEnd - this.nameStart != this.schema.longOptions()[this.resolvedLongind].name.length()) {
+				this.parseListener.abbreviationResolved(this.resolvedLongind);
+			}
+			this.parseListener.optionParsed(c);
+		}
+		return c;
+	}
+
+	/**
+	 * Tell the ParseListener, if there is one, that the scan has ended.
+	 * Only the first call has an effect.
+	 *
+	 * @param arguments The number of arguments scanned
+	 */
+	void completeParse(final int arguments) {
+		if (this.parseListener == null || this.parseCompleted) { return; }
+		this.parseCompleted = true;
+		this.parseListener.parseCompleted(arguments, this.parsedOptions, this.parseErrors, this.parseNanos);
+	}
+
+	/**
+	 * The getopt() algorithm proper
+	 */
+	private int nextOption() {
 		this.optarg = null;
+		this.optargElement = null;
+		this.nameElement = null;
+		this.resolvedLongind = -1;
+		this.returnedNonoption = false;
 		if (this.endparse) { return -1; }
-		if (this.nextchar == null || this.nextchar.equals("")) {
+		if (nextcharEmpty()) {
 			// If we have just processed some options following some non-options,
 			//  exchange them so that the options come first.
 			if (this.lastNonopt > this.optind) { this.lastNonopt = this.optind; }
 			if (this.firstNonopt > this.optind) { this.firstNonopt = this.optind; }
-			if (this.ordering == Getopt.PERMUTE) {
+			if (this.schema.ordering() == OptionSchema.PERMUTE && this.deferredPermutation) {
+				skipNonoptions();
+			} else if (this.schema.ordering() == OptionSchema.PERMUTE) {
 				// If we have just processed some options following some non-options,
 				// exchange them so that the options come first.
 				if (this.firstNonopt != this.lastNonopt && this.lastNonopt != this.optind) { exchange(this.argumentVector); } else if (this.lastNonopt != this.optind) { this.firstNonopt = this.optind; }
 				// Skip any additional non-options
 				// and extend the range of non-options previously skipped.
 				while (this.optind < this.argumentVector.length && (this.argumentVector[this.optind].equals("") ||
-						this.argumentVector[this.optind].charAt(0) != this.optionPrefix || this.argumentVector[this.optind].equals(this.optionPrefixStr))) {
+						this.argumentVector[this.optind].charAt(0) != this.schema.getOptionPrefix() || this.argumentVector[this.optind].equals(this.schema.optionPrefixStr()))) {
 					this.optind++;
 				}
 				this.lastNonopt = this.optind;
@@ -955,7 +1174,7 @@ public class Getopt {
 			// Skip it like a null option,
 			// then exchange with previous non-options as if it were an option,
 			// then skip everything else like a non-option.
-			if (this.optind != this.argumentVector.length && this.argumentVector[this.optind].equals(this.nonOptionSeparator)) {
+			if (this.optind != this.argumentVector.length && this.argumentVector[this.optind].equals(this.schema.getNonOptionSeparator())) {
 				this.optind++;
 				if (this.firstNonopt != this.lastNonopt && this.lastNonopt != this.optind) { exchange(this.argumentVector); } else if (this.firstNonopt == this.lastNonopt) { this.firstNonopt = this.optind; }
 				this.lastNonopt = this.argumentVector.length;
@@ -971,19 +1190,23 @@ public class Getopt {
 			}
 			// If we have come to a non-option and did not permute it,
 			// either stop the scan or describe it to the caller and pass it by.
-			if (this.argumentVector[this.optind].equals("") || this.argumentVector[this.optind].charAt(0) != this.optionPrefix ||
-					this.argumentVector[this.optind].equals(this.optionPrefixStr)) {
-				if (this.ordering == Getopt.REQUIRE_ORDER) { return -1; }
-				this.optarg = this.argumentVector[this.optind++];
+			if (this.argumentVector[this.optind].equals("") || this.argumentVector[this.optind].charAt(0) != this.schema.getOptionPrefix() ||
+					this.argumentVector[this.optind].equals(this.schema.optionPrefixStr())) {
+				if (this.schema.ordering() == OptionSchema.REQUIRE_ORDER) { return -1; }
+				this.optionElement = this.optind;
+				this.returnedNonoption = true;
+				setOptarg(this.argumentVector[this.optind++], 0);
 				return 1;
 			}
 			// We have found another option-ARGV-element.
 			// Skip the initial punctuation.
-			if (this.argumentVector[this.optind].startsWith(this.longOptionPrefix)) {
-				this.nextchar = this.argumentVector[this.optind].substring(2);
+			if (this.argumentVector[this.optind].startsWith(this.schema.getLongOptionPrefix())) {
+				this.nextcharIndex = 2;
 			} else {
-				this.nextchar = this.argumentVector[this.optind].substring(1);
+				this.nextcharIndex = 1;
 			}
+			this.nextchar = this.argumentVector[this.optind];
+			this.optionElement = this.optind;
 		}
 		// Decode the current option-ARGV-element.
 
@@ -999,9 +1222,9 @@ public class Getopt {
      the long option, just like "--fu", and not "-f" with arg "u".
 
      This distinction seems to be the most useful approach.  */
-		if (this.longOptions != null && (this.argumentVector[this.optind].startsWith(this.longOptionPrefix)
-				|| this.longOnly && (this.argumentVector[this.optind].length() > 2 ||
-				indexOf(this.argumentVector[this.optind].charAt(1)) == -1))) {
+		if (this.schema.longOptions() != null && (this.argumentVector[this.optind].startsWith(this.schema.getLongOptionPrefix())
+				|| this.schema.isLongOnly() && (this.argumentVector[this.optind].length() > 2 ||
+				this.schema.shortOptions().lookup(this.argumentVector[this.optind].charAt(1)) == ShortOptionTable.ABSENT))) {
 			final int c = checkLongOption();
 			if (this.longoptHandled) {
 				return c;
@@ -1010,67 +1233,64 @@ public class Getopt {
 			// or the option starts with '--' or is not a valid short
 			// option, then it's an error.
 			// Otherwise interpret it as a short option.
-			if (!this.longOnly || this.argumentVector[this.optind].startsWith(this.longOptionPrefix)
-					|| indexOf(this.nextchar.charAt(0)) == -1) {
+			if (!this.schema.isLongOnly() || this.argumentVector[this.optind].startsWith(this.schema.getLongOptionPrefix())
+					|| this.schema.shortOptions().lookup(this.nextchar.charAt(this.nextcharIndex)) == ShortOptionTable.ABSENT) {
+				this.failure = Diagnostic.Kind.UNRECOGNIZED;
 				if (this.opterr) {
-					if (this.argumentVector[this.optind].startsWith(this.longOptionPrefix)) {
-						final Object[] msgArgs = {this.progname, this.nextchar};
-						System.err.println(MessageFormat.format(
-								this.messages.getString("getopt.unrecognized"),
-								msgArgs));
+					final String name = this.nextchar.substring(this.nextcharIndex);
+					if (this.argumentVector[this.optind].startsWith(this.schema.getLongOptionPrefix())) {
+						report(Diagnostic.Kind.UNRECOGNIZED, this.optind, name, 0,
+								"getopt.unrecognized", this.schema.getProgname(), name);
 					} else {
-						final Object[] msgArgs = {this.progname, Character.toString(this.argumentVector[this.optind].charAt(0)),
-								this.nextchar};
-						System.err.println(MessageFormat.format(
-								this.messages.getString("getopt.unrecognized2"),
-								msgArgs));
+						report(Diagnostic.Kind.UNRECOGNIZED, this.optind, name, 0,
+								"getopt.unrecognized2", this.schema.getProgname(), Character.toString(this.argumentVector[this.optind].charAt(0)),
+								name);
 					}
 				}
-				this.nextchar = "";
+				this.nextchar = null;
 				++this.optind;
 				this.optopt = 0;
 				return '?';
 			}
 		} // if (longopts)
 		// Look at and handle the next short option-character */
-		int c = this.nextchar.charAt(0); //**** Do we need to check for empty str?
-		if (this.nextchar.length() > 1) { this.nextchar = this.nextchar.substring(1); } else { this.nextchar = ""; }
-		String temp = null;
-		final int charIndex = indexOf(c);
-		if (charIndex != -1) {
-			temp = this.optstring.substring(charIndex);
-			c = this.optstring.charAt(charIndex); // Use canonical char just in case the case-insensitive match is enabled.
+		setName(this.nextchar, this.nextcharIndex, this.nextcharIndex + 1);
+		int c = this.nextchar.charAt(this.nextcharIndex++);
+		final int descriptor = this.schema.shortOptions().lookup(c);
+		if (descriptor != ShortOptionTable.ABSENT) {
+			c = ShortOptionTable.canonical(descriptor); // Use canonical char just in case the case-insensitive match is enabled.
 		}
-		if (this.nextchar.equals("")) { ++this.optind; }
-		if (temp == null || c == ':') {
+		final int element = this.optind;
+		if (nextcharEmpty()) { ++this.optind; }
+		if (descriptor == ShortOptionTable.ABSENT || c == ':') {
+			this.failure = Diagnostic.Kind.INVALID;
 			if (this.opterr) {
-				if (this.posixlyCorrect) {
+				final String option = Character.toString((char)c);
+				if (this.schema.isPosixlyCorrect()) {
 					// 1003.2 specifies the format of this message
-					final Object[] msgArgs = {this.progname, Character.toString((char)c)};
-					System.err.println(MessageFormat.format(
-							this.messages.getString("getopt.illegal"), msgArgs));
+					report(Diagnostic.Kind.INVALID, element, option, c, "getopt.illegal", this.schema.getProgname(), option);
 				} else {
-					final Object[] msgArgs = {this.progname, Character.toString((char)c)};
-					System.err.println(MessageFormat.format(
-							this.messages.getString("getopt.invalid"), msgArgs));
+					report(Diagnostic.Kind.INVALID, element, option, c, "getopt.invalid", this.schema.getProgname(), option);
 				}
 			}
 			this.optopt = c;
 			return '?';
 		}
 		// Convenience. Treat POSIX -W foo same as long option --foo
-		if (temp.charAt(0) == 'W' && temp.length() > 1 && temp.charAt(1) == ';') {
-			if (!this.nextchar.equals("")) {
-				this.optarg = this.nextchar;
+		final int kind = ShortOptionTable.kind(descriptor);
+		if (kind == ShortOptionTable.LONG_OPTION) {
+			if (!nextcharEmpty()) {
+				setOptarg(this.nextchar, this.nextcharIndex);
 			}
 			// No further cars in this argv element and no more argv elements
 			else if (this.optind == this.argumentVector.length) {
-				return handleOptErr(c);
+				return handleOptErr(c, element);
 			} else {
 				// We already incremented `optind' once;
 				// increment it again when taking next ARGV-elt as argument.
 				this.nextchar = this.argumentVector[this.optind];
-				this.optarg = this.argumentVector[this.optind];
+				this.nextcharIndex = 0;
+				setOptarg(this.nextchar, 0);
 			}
 			c = checkLongOption();
 			if (this.longoptHandled) { return c; } else
@@ -1081,39 +1301,37 @@ public class Getopt {
 				return 'W';
 			}
 		}
-		if (temp.length() > 1 && temp.charAt(1) == ':') {
-			if (temp.length() > 2 && temp.charAt(2) == ':')
+		if (kind != ShortOptionTable.NO_ARGUMENT) {
+			if (kind == ShortOptionTable.OPTIONAL_ARGUMENT)
 			// This is an option that accepts an argument optionally
 			{
-				if (!this.nextchar.equals("")) {
-					this.optarg = this.nextchar;
+				if (!nextcharEmpty()) {
+					setOptarg(this.nextchar, this.nextcharIndex);
 					++this.optind;
-				} else {
-					this.optarg = null;
 				}
 				this.nextchar = null;
 			} else {
-				if (!this.nextchar.equals("")) {
-					this.optarg = this.nextchar;
+				if (!nextcharEmpty()) {
+					setOptarg(this.nextchar, this.nextcharIndex);
 					++this.optind;
 				} else if (this.optind == this.argumentVector.length) {
-					return handleOptErr(c);
+					return handleOptErr(c, element);
 				} else {
-					this.optarg = this.argumentVector[this.optind];
+					setOptarg(this.argumentVector[this.optind], 0);
 					++this.optind;
 					// Ok, here's an obscure Posix case.  If we have o:, and
 					// we get -o -- foo, then we're supposed to skip the --,
 					// end parsing of options, and make foo an operand to -o.
 					// Only do this in Posix mode.
-					if (this.posixlyCorrect && this.optarg.equals(this.nonOptionSeparator)) {
+					if (this.schema.isPosixlyCorrect() && this.optargElement.equals(this.schema.getNonOptionSeparator())) {
 						// If end of argv, error out
 						if (this.optind == this.argumentVector.length) {
-							return handleOptErr(c);
+							return handleOptErr(c, element);
 						}
 						// Set new optarg and set to end
 						// Don't permute as we do on -- up above since we
 						// know we aren't in permute mode because of Posix.
-						this.optarg = this.argumentVector[this.optind];
+						setOptarg(this.argumentVector[this.optind], 0);
 						++this.optind;
 						this.firstNonopt = this.optind;
 						this.lastNonopt = this.argumentVector.length;
@@ -1126,19 +1344,141 @@ public class Getopt {
 		return c;
 	}
 
-	private Integer indexOf(final int c) {
-		return this.indexOfFunction.apply(this.optstring, c);
+	/**
+	 * Returns the index in argv of the element in which the option last
+	 * returned by getopt() was found.  Permutation only moves elements that
+	 * have already been scanned, so this is also the position the element
+	 * had in the original argv.
+	 */
+	int optionElement() {
+		return this.optionElement;
+	}
+
+	/**
+	 * Returns true if getopt() has ended the scan early, which only
+	 * happens for the POSIX form "-o -- arg" of an option with an argument
+	 */
+	boolean endparse() {
+		return this.endparse;
+	}
+
+	int resolvedLongind() {
+		return this.resolvedLongind;
+	}
+
+	/**
+	 * Returns true if getopt() is done with the current argv element, so
+	 * that the scan can later be resumed from here with resume()
+	 */
+	boolean atElementBoundary() {
+		return nextcharEmpty() && !this.endparse;
+	}
+
+	int firstNonopt() {
+		return this.firstNonopt;
+	}
+
+	int lastNonopt() {
+		return this.lastNonopt;
+	}
+
+	int skippedCount() {
+		return this.skippedCount;
+	}
+
+	int parsedOptions() {
+		return this.parsedOptions;
+	}
+
+	int parseErrors() {
+		return this.parseErrors;
+	}
+
+	long parseNanos() {
+		return this.parseNanos;
+	}
+
+	/**
+	 * Continue scanning argv from a state saved at an element boundary of
+	 * an earlier scan by this object, with deferred permutation, over an
+	 * argv whose elements before optind are unchanged.  Since deferred
+	 * permutation leaves argv alone until the end of the scan, and the
+	 * indices of the skipped non-options are only ever appended, the
+	 * state is optind, the non-option range, the number of skipped
+	 * non-options, optopt, which getopt() only sets on errors, and the
+	 * counts reported to the ParseListener.
+	 */
+	void resume(final String[] argv, final int optind, final int firstNonopt, final int lastNonopt, final int skippedCount,
+			final int optopt, final int parsedOptions, final int parseErrors, final long parseNanos) {
+		this.argumentVector = argv;
+		this.optind = optind;
+		this.optopt = optopt;
+		this.firstNonopt = firstNonopt;
+		this.lastNonopt = lastNonopt;
+		this.skippedCount = skippedCount;
+		this.nextchar = null;
+		this.endparse = false;
+		this.parsedOptions = parsedOptions;
+		this.parseErrors = parseErrors;
+		this.parseNanos = parseNanos;
+		this.parseCompleted = false;
+	}
+
+	/**
+	 * Start over on another argv, as if this object had just been created
+	 * for it.  The settings made through the setters are kept.
+	 */
+	void reset(final String[] argv) {
+		resume(argv, 0, 1, 1, 0, '?', 0, 0, 0);
+	}
+
+	boolean returnedNonoption() {
+		return this.returnedNonoption;
+	}
+
+	String[] argumentVector() {
+		return this.argumentVector;
+	}
+
+	private void report(final Diagnostic.Kind kind, final int argvIndex, final String option, final int optopt,
+			final String key, final Object... args) {
+		this.diagnosticSink.report(new Diagnostic(kind, argvIndex, option, optopt, this.schema.messages(), key, args));
+	}
+
+	/**
+	 * Returns true unless getopt() is in the middle of a cluster of short
+	 * options
+	 */
+	boolean nextcharEmpty() {
+		return this.nextchar == null || this.nextcharIndex >= this.nextchar.length();
+	}
+
+	private void setOptarg(final String element, final int index) {
+		this.optarg = null;
+		this.optargElement = element;
+		this.optargIndex = index;
+	}
+
+	private void setName(final String element, final int start, final int end) {
+		this.nameElement = element;
+		this.nameStart = start;
+		this.nameEnd = end;
+	}
+
+	private void requireOptarg() {
+		// Like Integer.parseInt(null)
+		if (this.optargElement == null) { throw new NumberFormatException("null"); }
 	}
 
-	private int handleOptErr(final int c) {
+	private int handleOptErr(final int c, final int element) {
+		this.failure = Diagnostic.Kind.REQUIRES_ARGUMENT;
 		if (this.opterr) {
 			// 1003.2 specifies the format of this message
-			final Object[] msgArgs = {this.progname, Character.toString((char)c)};
-			System.err.println(MessageFormat.format(
-					this.messages.getString("getopt.requires2"), msgArgs));
+			final String option = Character.toString((char)c);
+			report(Diagnostic.Kind.REQUIRES_ARGUMENT, element, option, c, "getopt.requires2", this.schema.getProgname(), option);
 		}
 		this.optopt = c;
-		if (this.optstring.charAt(0) == ':') { return ':'; } else { return '?'; }
+		if (this.schema.getOptstring().charAt(0) == ':') { return ':'; } else { return '?'; }
 	}
 }
 
@@ -20,9 +20,7 @@
  /**************************************************************************/
 package gnu.getopt;
 
-import java.text.MessageFormat;
 import java.util.Locale;
-import java.util.ResourceBundle;
 
 /**
  * This object represents the definition of a long option in the Java port
@@ -72,6 +70,8 @@ public class LongOpt {
 	 * If this variable is not null, then the value stored in "val" is stored
 	 * here when this long option is encountered.  If this is null, the value
 	 * stored in "val" is treated as the name of an equivalent short option.
+	 * OptionSchema.parse() and Getopt objects with setStoreFlags(false) do
+	 * not store here, since the array may be shared between threads.
 	 */
 	int[] flag;
 	/**
@@ -79,10 +79,6 @@ public class LongOpt {
 	 * equivalent short option character for this long option.
 	 */
 	int val;
-	/**
-	 * Localized strings for error messages
-	 */
-	private final ResourceBundle messages = ResourceBundle.getBundle("gnu/getopt/MessagesBundle", Locale.getDefault());
 
 
 	/**
@@ -101,8 +97,7 @@ public class LongOpt {
 		if (hasArg != LongOpt.NO_ARGUMENT && hasArg != LongOpt.REQUIRED_ARGUMENT
 				&& hasArg != LongOpt.OPTIONAL_ARGUMENT) {
 			final Object[] msgArgs = {Integer.toString(hasArg)};
-			throw new IllegalArgumentException(MessageFormat.format(
-					this.messages.getString("getopt.invalidValue"), msgArgs));
+			throw new IllegalArgumentException(Messages.get(Locale.getDefault()).format("getopt.invalidValue", msgArgs));
 		}
 		// Store off values
 		this.name = name;
@@ -0,0 +1,340 @@
+package gnu.getopt;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, serializable lookup table for large static sets of long
+ * options, such as thousands of options collected from plugin manifests.
+ * <p>
+ * The names are stored in a single char array, the rest of each LongOpt
+ * in parallel primitive arrays.  Exact matches are found through a minimal
+ * perfect hash built when the dictionary is created: each key is hashed
+ * once into a bucket, and the per-bucket displacement stored in seeds
+ * sends every name in that bucket to its own slot, so a lookup touches
+ * exactly one candidate.  Abbreviations are handled like in
+ * LongOptionIndex, through the names in sorted order as described in
+ * SortedLongOptions.
+ * <p>
+ * Building the table costs time proportional to the number of options.
+ * A program can do it once, serialize the dictionary, and load it at
+ * startup instead:
+ * <p>
+ * <pre>
+ * LongOptionDictionary dict = (LongOptionDictionary) in.readObject();
+ * OptionSchema schema = OptionSchema.createGnu("testprog", "ab:").withLongOptionDictionary(dict);
+ * </pre>
+ * <p>
+ * Note that flag arrays are serialized with the dictionary, so a
+ * deserialized dictionary stores into its own copies of them.
+ *
+ * @see OptionSchema#withLongOptionDictionary(LongOptionDictionary)
+ */
+public final class LongOptionDictionary extends SortedLongOptions implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Average number of names per bucket of the perfect hash
+	 */
+	private static final int BUCKET_SIZE = 4;
+	/**
+	 * Displacements tried for a bucket before the hash is salted anew
+	 */
+	private static final int MAX_SEED = 1 << 16;
+
+	private final boolean ignoreCase;
+	/**
+	 * The names, one after the other
+	 */
+	private final char[] chars;
+	/**
+	 * Start of the name of option i in chars, with a final entry for the end
+	 */
+	private final int[] offsets;
+	private final int[] hasArgs;
+	private final int[][] flags;
+	private final int[] vals;
+	/**
+	 * Salt of the hash function, changed only if the table could not be built
+	 */
+	private final long salt;
+	/**
+	 * Displacement per bucket, zero for an empty bucket and minus the slot
+	 * plus one for a bucket with a single key
+	 */
+	private final int[] seeds;
+	/**
+	 * Option index per slot of the perfect hash, -1 if the slot is unused
+	 */
+	private final int[] slots;
+	/**
+	 * Long option indexes, ordered by name
+	 */
+	private final int[] sorted;
+	private transient LongOpt[] longOptions;
+	/**
+	 * The names in chars folded if ignoreCase, otherwise chars itself
+	 */
+	private transient char[] foldedChars;
+
+	/**
+	 * Build a dictionary over the given long options.
+	 *
+	 * @param longOptions The long options, in the order getLongind() reports them
+	 * @param ignoreCase true if names are matched case-insensitively
+	 */
+	public LongOptionDictionary(final LongOpt[] longOptions, final boolean ignoreCase) {
+		final int n = longOptions.length;
+		this.ignoreCase = ignoreCase;
+		this.offsets = new int[n + 1];
+		this.hasArgs = new int[n];
+		this.flags = new int[n][];
+		this.vals = new int[n];
+		int length = 0;
+		for (int i = 0; i < n; i++) { length += longOptions[i].getName().length(); }
+		this.chars = new char[length];
+		for (int i = 0; i < n; i++) {
+			final String name = longOptions[i].getName();
+			final int start = this.offsets[i];
+			for (int j = 0; j < name.length(); j++) { this.chars[start + j] = name.charAt(j); }
+			this.offsets[i + 1] = start + name.length();
+			this.hasArgs[i] = longOptions[i].getHasArg();
+			this.flags[i] = longOptions[i].getFlag();
+			this.vals[i] = longOptions[i].getVal();
+		}
+		this.longOptions = longOptions.clone();
+		this.foldedChars = foldNames();
+		this.sorted = sortByName();
+		// Only the first of several equal names can ever be an exact match
+		final int[] keys = uniqueNames();
+		this.seeds = new int[Math.max(1, (keys.length + LongOptionDictionary.BUCKET_SIZE - 1) / LongOptionDictionary.BUCKET_SIZE)];
+		this.slots = new int[Math.max(1, keys.length)];
+		long salt = 0;
+		while (!buildPerfectHash(keys, salt)) { salt++; }
+		this.salt = salt;
+	}
+
+	/**
+	 * Returns a copy of the long options in this dictionary.
+	 */
+	public LongOpt[] getLongOptions() {
+		return this.longOptions.clone();
+	}
+
+	/**
+	 * Returns the number of long options in this dictionary.
+	 */
+	public int size() {
+		return this.vals.length;
+	}
+
+	public boolean isIgnoreCase() {
+		return this.ignoreCase;
+	}
+
+	LongOpt[] longOptions() {
+		return this.longOptions;
+	}
+
+	private char[] foldNames() {
+		if (!this.ignoreCase) { return this.chars; }
+		final char[] folded = new char[this.chars.length];
+		for (int i = 0; i < folded.length; i++) { folded[i] = CaseFolding.fold(this.chars[i]); }
+		return folded;
+	}
+
+	@Override
+	int[] sorted() {
+		return this.sorted;
+	}
+
+	@Override
+	int findExact(final String s, final int start, final int end) {
+		if (this.vals.length == 0) { return SortedLongOptions.NOT_FOUND; }
+		final long h = hash(s, start, end, this.salt);
+		final int seed = this.seeds[bucket(h, this.seeds.length)];
+		if (seed == 0) { return SortedLongOptions.NOT_FOUND; }
+		final int index = this.slots[seed < 0 ? -seed - 1 : slot(h, seed, this.slots.length)];
+		if (index < 0) { return SortedLongOptions.NOT_FOUND; }
+		final int offset = this.offsets[index];
+		if (this.offsets[index + 1] - offset != end - start) { return SortedLongOptions.NOT_FOUND; }
+		for (int i = start; i < end; i++) {
+			if (this.foldedChars[offset + i - start] != fold(s.charAt(i))) { return SortedLongOptions.NOT_FOUND; }
+		}
+		return index;
+	}
+
+	/**
+	 * Assign every key its own slot by finding, for each bucket from the
+	 * fullest to the emptiest, a displacement that sends all of its keys to
+	 * slots not taken yet.
+	 *
+	 * @return false if some bucket could not be placed with this salt
+	 */
+	private boolean buildPerfectHash(final int[] keys, final long salt) {
+		final long[] hashes = new long[keys.length];
+		final List<List<Integer>> buckets = new ArrayList<>(this.seeds.length);
+		for (int b = 0; b < this.seeds.length; b++) { buckets.add(new ArrayList<>()); }
+		for (int k = 0; k < keys.length; k++) {
+			hashes[k] = hash(this.foldedChars, this.offsets[keys[k]], this.offsets[keys[k] + 1], salt);
+			buckets.get(bucket(hashes[k], this.seeds.length)).add(k);
+		}
+		final Integer[] order = new Integer[this.seeds.length];
+		for (int b = 0; b < order.length; b++) { order[b] = b; }
+		Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+		Arrays.fill(this.seeds, 0);
+		Arrays.fill(this.slots, -1);
+		int free = 0;
+		for (final int b : order) {
+			final List<Integer> bucket = buckets.get(b);
+			if (bucket.isEmpty()) { break; }
+			if (bucket.size() == 1) {
+				// The remaining buckets hold one key each, which can go to any free slot directly
+				while (this.slots[free] != -1) { free++; }
+				this.slots[free] = keys[bucket.get(0)];
+				this.seeds[b] = -free - 1;
+				continue;
+			}
+			final int[] placed = new int[bucket.size()];
+			int seed = 1;
+			int count = 0;
+			while (count < bucket.size()) {
+				if (seed == LongOptionDictionary.MAX_SEED) { return false; }
+				count = 0;
+				for (final int k : bucket) {
+					final int slot = slot(hashes[k], seed, this.slots.length);
+					if (this.slots[slot] != -1) { break; }
+					this.slots[slot] = keys[k];
+					placed[count++] = slot;
+				}
+				if (count < bucket.size()) {
+					// Undo the partial placement and try the next displacement
+					for (int i = 0; i < count; i++) { this.slots[placed[i]] = -1; }
+					seed++;
+				}
+			}
+			this.seeds[b] = seed;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the indexes of the options whose name does not occur earlier.
+	 */
+	private int[] uniqueNames() {
+		final int[] keys = new int[this.sorted.length];
+		int count = 0;
+		for (int i = 0; i < this.sorted.length; i++) {
+			// Equal names are adjacent in sorted, the lowest index first
+			if (i == 0 || compareNames(this.sorted[i - 1], this.sorted[i]) != 0) { keys[count++] = this.sorted[i]; }
+		}
+		return Arrays.copyOf(keys, count);
+	}
+
+	private int[] sortByName() {
+		final Integer[] order = new Integer[this.vals.length];
+		for (int i = 0; i < order.length; i++) { order[i] = i; }
+		Arrays.sort(order, (a, b) -> {
+			final int cmp = compareNames(a, b);
+			return cmp != 0 ? cmp : a - b;
+		});
+		final int[] result = new int[order.length];
+		for (int i = 0; i < order.length; i++) { result[i] = order[i]; }
+		return result;
+	}
+
+	private int compareNames(final int a, final int b) {
+		final int aStart = this.offsets[a];
+		final int aLen = this.offsets[a + 1] - aStart;
+		final int bStart = this.offsets[b];
+		final int bLen = this.offsets[b + 1] - bStart;
+		final int n = Math.min(aLen, bLen);
+		for (int i = 0; i < n; i++) {
+			final char ca = this.foldedChars[aStart + i];
+			final char cb = this.foldedChars[bStart + i];
+			if (ca != cb) { return ca - cb; }
+		}
+		return aLen - bLen;
+	}
+
+	@Override
+	int comparePrefix(final int index, final String s, final int start, final int end) {
+		final int offset = this.offsets[index];
+		final int len = Math.min(this.offsets[index + 1] - offset, end - start);
+		for (int i = 0; i < len; i++) {
+			final char ca = this.foldedChars[offset + i];
+			final char cb = fold(s.charAt(start + i));
+			if (ca != cb) { return ca - cb; }
+		}
+		return len - (end - start);
+	}
+
+	private char fold(final char c) {
+		return this.ignoreCase ? CaseFolding.fold(c) : c;
+	}
+
+	/*
+	 * The hash of a name is computed once per lookup; the bucket is taken
+	 * from its upper half and the slot from both halves and the bucket seed.
+	 */
+
+	private long hash(final String s, final int start, final int end, final long salt) {
+		long h = 0xcbf29ce484222325L ^ salt;
+		for (int i = start; i < end; i++) { h = (h ^ fold(s.charAt(i))) * 0x100000001b3L; }
+		return mix(h);
+	}
+
+	private static long hash(final char[] chars, final int start, final int end, final long salt) {
+		long h = 0xcbf29ce484222325L ^ salt;
+		for (int i = start; i < end; i++) { h = (h ^ chars[i]) * 0x100000001b3L; }
+		return mix(h);
+	}
+
+	private static long mix(long h) {
+		h = (h ^ h >>> 33) * 0xff51afd7ed558ccdL;
+		h = (h ^ h >>> 33) * 0xc4ceb9fe1a85ec53L;
+		return h ^ h >>> 33;
+	}
+
+	private static int bucket(final long h, final int buckets) {
+		return (int) ((h >>> 32) % buckets);
+	}
+
+	private static int slot(final long h, final int seed, final int size) {
+		final int x = (int) h + seed * ((int) (h >>> 32) | 1);
+		return ((x ^ x >>> 16) * 0x45d9f3b & 0x7fffffff) % size;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int n = this.vals.length;
+		if (this.offsets.length != n + 1 || this.hasArgs.length != n || this.flags.length != n || this.sorted.length != n
+				|| this.seeds.length == 0 || this.slots.length == 0 || this.offsets[0] != 0 || this.offsets[n] != this.chars.length) {
+			throw new InvalidObjectException("inconsistent long option dictionary");
+		}
+		this.foldedChars = foldNames();
+		this.longOptions = new LongOpt[n];
+		for (int i = 0; i < n; i++) {
+			if (this.offsets[i] > this.offsets[i + 1] || this.sorted[i] < 0 || this.sorted[i] >= n) {
+				throw new InvalidObjectException("inconsistent long option dictionary");
+			}
+			try {
+				this.longOptions[i] = new LongOpt(new String(this.chars, this.offsets[i], this.offsets[i + 1] - this.offsets[i]), this.hasArgs[i], this.flags[i], this.vals[i]);
+			} catch (final IllegalArgumentException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+		}
+		for (final int index : this.slots) {
+			if (index < -1 || index >= n) { throw new InvalidObjectException("inconsistent long option dictionary"); }
+		}
+		for (final int seed : this.seeds) {
+			if (seed < -this.slots.length) { throw new InvalidObjectException("inconsistent long option dictionary"); }
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package gnu.getopt;
+
+import java.util.Arrays;
+
+/**
+ * A lookup structure over the names of an array of LongOpt objects.  It
+ * answers the question checkLongOption() asks for every long option on
+ * the command line - which option does this (possibly abbreviated) name
+ * denote? - without scanning the whole array and without allocating.
+ * <p>
+ * Exact matches are found through an open-addressing hash table,
+ * abbreviations through the names in sorted order as described in
+ * SortedLongOptions.
+ * <p>
+ * If case is ignored, the names are folded once by the constructor (see
+ * CaseFolding), and lookups fold only the characters of the key.
+ */
+final class LongOptionIndex extends SortedLongOptions {
+
+	private final boolean ignoreCase;
+	/**
+	 * The names of the long options, folded if ignoreCase
+	 */
+	private final String[] keys;
+	/**
+	 * Hash table of long option indexes plus one, zero marks a free slot
+	 */
+	private final int[] slots;
+	private final int mask;
+	/**
+	 * Long option indexes, ordered by name
+	 */
+	private final int[] sorted;
+
+	LongOptionIndex(final LongOpt[] longOptions, final boolean ignoreCase) {
+		this.ignoreCase = ignoreCase;
+		this.keys = new String[longOptions.length];
+		for (int i = 0; i < longOptions.length; i++) {
+			this.keys[i] = ignoreCase ? CaseFolding.fold(longOptions[i].getName()) : longOptions[i].getName();
+		}
+		int size = 2;
+		while (size < longOptions.length * 2) { size <<= 1; }
+		this.slots = new int[size];
+		this.mask = size - 1;
+		for (int i = 0; i < longOptions.length; i++) {
+			final String name = this.keys[i];
+			// Only the first of several equal names can ever be an exact match
+			if (findExact(name, 0, name.length()) == SortedLongOptions.NOT_FOUND) {
+				int slot = hash(name, 0, name.length()) & this.mask;
+				while (this.slots[slot] != 0) { slot = slot + 1 & this.mask; }
+				this.slots[slot] = i + 1;
+			}
+		}
+		final Integer[] order = new Integer[longOptions.length];
+		for (int i = 0; i < order.length; i++) { order[i] = i; }
+		Arrays.sort(order, (a, b) -> {
+			final int cmp = this.keys[a].compareTo(this.keys[b]);
+			return cmp != 0 ? cmp : a - b;
+		});
+		this.sorted = new int[order.length];
+		for (int i = 0; i < order.length; i++) { this.sorted[i] = order[i]; }
+	}
+
+	@Override
+	int[] sorted() {
+		return this.sorted;
+	}
+
+	@Override
+	int findExact(final String s, final int start, final int end) {
+		final int len = end - start;
+		int slot = hash(s, start, end) & this.mask;
+		int entry;
+		while ((entry = this.slots[slot]) != 0) {
+			final String key = this.keys[entry - 1];
+			if (key.length() == len && (this.ignoreCase ? CaseFolding.regionMatches(key, 0, s, start, len) : key.regionMatches(0, s, start, len))) {
+				return entry - 1;
+			}
+			slot = slot + 1 & this.mask;
+		}
+		return SortedLongOptions.NOT_FOUND;
+	}
+
+	private int hash(final String s, final int start, final int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) { h = 31 * h + fold(s.charAt(i)); }
+		return h ^ h >>> 16;
+	}
+
+	@Override
+	int comparePrefix(final int index, final String s, final int start, final int end) {
+		final String key = this.keys[index];
+		final int n = Math.min(key.length(), end - start);
+		for (int i = 0; i < n; i++) {
+			final char ca = key.charAt(i);
+			final char cb = fold(s.charAt(start + i));
+			if (ca != cb) { return ca - cb; }
+		}
+		return n - (end - start);
+	}
+
+	private char fold(final char c) {
+		return this.ignoreCase ? CaseFolding.fold(c) : c;
+	}
+}
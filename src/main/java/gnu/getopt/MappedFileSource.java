@@ -0,0 +1,80 @@
+package gnu.getopt;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the characters of a file by memory-mapping it and decoding the
+ * mapped bytes on demand, directly into the caller's buffer.  The file is
+ * never copied into the heap.  Files larger than a single mapping can
+ * hold are mapped in consecutive regions; a character whose bytes straddle
+ * two regions is decoded from the start of the next one.  Malformed input
+ * is replaced rather than reported.
+ */
+final class MappedFileSource implements Readable {
+
+	private static final long REGION_SIZE = 1L << 30;
+
+	private final Path file;
+	private final long size;
+	private final CharsetDecoder decoder;
+	/**
+	 * The current region, or null if the next one still has to be mapped
+	 */
+	private MappedByteBuffer bytes;
+	/**
+	 * The position in the file of the first byte of the current region
+	 */
+	private long offset;
+	private boolean flushing;
+	private boolean done;
+
+	MappedFileSource(final Path file, final Charset charset) throws IOException {
+		this.file = file;
+		this.size = Files.size(file);
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	@Override
+	public int read(final CharBuffer target) throws IOException {
+		final int start = target.position();
+		while (target.hasRemaining() && !this.done) {
+			if (this.flushing) {
+				if (this.decoder.flush(target).isUnderflow()) { this.done = true; }
+				continue;
+			}
+			if (this.bytes == null) { map(); }
+			final boolean last = this.offset + this.bytes.limit() == this.size;
+			final CoderResult result = this.decoder.decode(this.bytes, target, last);
+			if (result.isUnderflow()) {
+				if (last) {
+					this.flushing = true;
+				} else {
+					// Continue with the next region, starting at the first byte not decoded yet
+					this.offset += this.bytes.position();
+					this.bytes = null;
+				}
+			}
+		}
+		final int count = target.position() - start;
+		return count == 0 && this.done ? -1 : count;
+	}
+
+	private void map() throws IOException {
+		// The mapping stays valid after the channel is closed
+		try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			this.bytes = channel.map(FileChannel.MapMode.READ_ONLY, this.offset, Math.min(MappedFileSource.REGION_SIZE, this.size - this.offset));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package gnu.getopt;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The localized error messages of one Locale.  Instances are shared by
+ * every OptionSchema and LongOpt in the process.  The ResourceBundle is
+ * only loaded when the first message is actually formatted, and each
+ * message pattern is compiled into a MessageFormat only once.
+ * <p>
+ * The build compiles the MessagesBundle properties files into
+ * ListResourceBundle classes of the same names (see BundleCompiler in
+ * src/build), which getBundle() finds before the properties files, so
+ * loading the messages takes no resource lookup, I/O or parsing.  The
+ * properties files remain the source and are still found if the classes
+ * are missing.
+ */
+final class Messages {
+
+	private static final String BUNDLE_NAME = "gnu.getopt.MessagesBundle";
+
+	private static final ConcurrentMap<Locale, Messages> INSTANCES = new ConcurrentHashMap<>();
+
+	private final Locale locale;
+	private final ConcurrentMap<String, MessageFormat> formats = new ConcurrentHashMap<>();
+	private volatile ResourceBundle bundle;
+
+	private Messages(final Locale locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * Returns the shared messages for the given Locale.  This does not load
+	 * anything yet.
+	 */
+	static Messages get(final Locale locale) {
+		final Messages messages = Messages.INSTANCES.get(locale);
+		return messages != null ? messages : Messages.INSTANCES.computeIfAbsent(locale, Messages::new);
+	}
+
+	/**
+	 * Format the message with the given key.
+	 *
+	 * @param key The key of the message in MessagesBundle
+	 * @param args The values for the placeholders of the message
+	 *
+	 * @return The formatted message
+	 */
+	String format(final String key, final Object... args) {
+		MessageFormat format = this.formats.get(key);
+		if (format == null) {
+			format = this.formats.computeIfAbsent(key, k -> new MessageFormat(bundle().getString(k)));
+		}
+		// MessageFormat is not thread-safe, but messages are rarely formatted concurrently
+		synchronized (format) {
+			return format.format(args);
+		}
+	}
+
+	private ResourceBundle bundle() {
+		ResourceBundle result = this.bundle;
+		if (result == null) {
+			result = ResourceBundle.getBundle(Messages.BUNDLE_NAME, this.locale);
+			this.bundle = result;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,527 @@
+package gnu.getopt;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * An OptionSchema is the compiled, immutable form of everything that
+ * describes the valid options of a program: the short option string,
+ * the array of LongOpt objects, the option prefixes and name/value
+ * separator, case sensitivity and the ordering mode selected by a leading
+ * '+' or '-' in the option string (or by the "gnu.posixly_correct"
+ * property).
+ * <p>
+ * Constructing a Getopt object performs all of this setup every time.
+ * Programs that parse many command lines against the same option
+ * definitions can instead compile an OptionSchema once and create a
+ * lightweight Getopt cursor for every argument vector:
+ * <p>
+ * <pre>
+ * static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:c::d", longopts);
+ * //
+ * Getopt g = SCHEMA.parser(argv);
+ * while ((c = g.getopt()) != -1)
+ *   ...
+ * </pre>
+ * <p>
+ * An OptionSchema can be shared freely between threads.  The Getopt
+ * objects it creates hold all of the per-parse state and must not be.
+ * <p>
+ * For concurrent parsing, use parse().  It creates a private Getopt
+ * object and a private copy of argv for every call, collects errors
+ * instead of printing them, and does not store into the flag arrays of
+ * the LongOpt objects, which would otherwise be written by every thread
+ * parsing with the same long options.  The only state shared between
+ * concurrent calls is the schema itself, which is immutable, so parse()
+ * may be called from any number of threads without synchronization.
+ *
+ * @see Getopt
+ * @see LongOpt
+ */
+public final class OptionSchema {
+
+	/**
+	 * Describe how to deal with options that follow non-option ARGV-elements.
+	 * If the caller did not specify anything,
+	 * the default is REQUIRE_ORDER if the property
+	 * gnu.posixly_correct is defined, PERMUTE otherwise.
+	 * The special argument `--' forces an end of option-scanning regardless
+	 * of the value of `ordering'.  In the case of RETURN_IN_ORDER, only
+	 * `--' can cause `getopt' to return -1 with `optind' != ARGC.
+	 * REQUIRE_ORDER means don't recognize them as options;
+	 * stop option processing when the first non-option is seen.
+	 * This is what Unix does.
+	 * This mode of operation is selected by either setting the property
+	 * gnu.posixly_correct, or using `+' as the first character
+	 * of the list of option characters.
+	 */
+	static final int REQUIRE_ORDER = 1;
+	/**
+	 * PERMUTE is the default.  We permute the contents of ARGV as we scan,
+	 * so that eventually all the non-options are at the end.  This allows options
+	 * to be given in any order, even with programs that were not written to
+	 * expect this.
+	 */
+	static final int PERMUTE = 2;
+	/**
+	 * RETURN_IN_ORDER is an option available to programs that were written
+	 * to expect options and other ARGV-elements in any order and that care about
+	 * the ordering of the two.  We describe each non-option ARGV-element
+	 * as if it were the argument of an option with character code 1.
+	 * Using `-' as the first character of the list of option characters
+	 * selects this mode of operation.
+	 */
+	static final int RETURN_IN_ORDER = 3;
+
+	static final String DEF_NAME_VALUE_SEPARATOR = "=";
+	static final String DEF_LONG_OPTION_PREFIX = "--";
+	static final String DEF_NON_OPTION_SEPARATOR = "--";
+	static final char DEF_SHORT_OPTION_PREFIX = '-';
+
+	/**
+	 * Name to print as the program name in error messages.
+	 */
+	private final String progname;
+	/**
+	 * This is the string describing the valid short options, with any
+	 * leading ordering character already stripped.
+	 */
+	private final String optstring;
+	/**
+	 * Descriptors of the characters of optstring
+	 */
+	private final ShortOptionTable shortOptions;
+	/**
+	 * This is an array of LongOpt objects which describe the valid long
+	 * options.
+	 */
+	private final LongOpt[] longOptions;
+	/**
+	 * Name lookup structure over longOptions
+	 */
+	private final LongOptionIndex longOptionIndex;
+	/**
+	 * Replaces longOptionIndex if the long options come from withLongOptionDictionary()
+	 */
+	private final LongOptionDictionary longOptionDictionary;
+	/**
+	 * This flag determines whether or not we are parsing only long args
+	 */
+	private final boolean longOnly;
+	/**
+	 * The flag determines whether or not we operate in strict POSIX compliance
+	 */
+	private final boolean posixlyCorrect;
+	/**
+	 * Determines whether we permute arguments or not
+	 */
+	private final int ordering;
+	/**
+	 * The localized strings are kept in a separate file
+	 */
+	private final Messages messages;
+
+	private final String nameValueSeparator;
+	private final String longOptionPrefix;
+	private final String nonOptionSeparator;
+	private final char optionPrefix;
+	private final String optionPrefixStr;
+	private final boolean ignoreOptionCase;
+	/**
+	 * The options declared with withValueType(), sorted, and their types
+	 */
+	private final int[] typedOptions;
+	private final ValueType[] valueTypes;
+	/**
+	 * Installed in every Getopt object created for this schema, may be null
+	 */
+	private final ParseListener parseListener;
+
+	/**
+	 * Compile a schema that handles "short" options only.
+	 *
+	 * @param progname The name to display as the program name when printing errors
+	 * @param optstring A String containing a description of the valid args for this program
+	 */
+	public static OptionSchema createGnu(final String progname, final String optstring) {
+		return new OptionSchema(progname, optstring, null, false, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
+	}
+
+	/**
+	 * Compile a schema that is capable of parsing long options as well as short.
+	 *
+	 * @param progname The name to display as the program name when printing errors
+	 * @param optstring A String containing a description of the valid short args for this program
+	 * @param longOptions An array of LongOpt objects that describes the valid long args for this program
+	 */
+	public static OptionSchema createGnu(final String progname, final String optstring, final LongOpt... longOptions) {
+		return new OptionSchema(progname, optstring, longOptions, false, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
+	}
+
+	/**
+	 * Compile a schema that is capable of parsing long options as well as short.
+	 *
+	 * @param progname The name to display as the program name when printing errors
+	 * @param optstring A String containing a description of the valid short args for this program
+	 * @param longOnly true if long options that do not conflict with short options can start with a '-' as well as '--'
+	 * @param longOptions An array of LongOpt objects that describes the valid long args for this program
+	 */
+	public static OptionSchema createGnu(final String progname, final String optstring, final boolean longOnly,
+			final LongOpt... longOptions) {
+		return new OptionSchema(progname, optstring, longOptions, longOnly, OptionSchema.DEF_SHORT_OPTION_PREFIX, OptionSchema.DEF_LONG_OPTION_PREFIX, OptionSchema.DEF_NAME_VALUE_SEPARATOR, false);
+	}
+
+	public static OptionSchema createMsDos(final String progname, final String optstring, final LongOpt... longOptions) {
+		return new OptionSchema(progname, optstring, longOptions, true, '/', "//", ":", true);
+	}
+
+	public static OptionSchema createMsPowerShell(final String progname, final String optstring, final LongOpt... longOptions) {
+		return new OptionSchema(progname, optstring, longOptions, true, '-', "--", "=", true);
+	}
+
+	/**
+	 * Compile a schema from the given option definitions.  This performs
+	 * the work of _getopt_initialize from GNU getopt once, so that it need
+	 * not be repeated for every argument vector.
+	 *
+	 * @param progname The name to display as the program name when printing errors
+	 * @param optstring A String containing a description of the valid short args for this program
+	 * @param longOptions An array of LongOpt objects that describes the valid long args for this program
+	 * @param longOnly true if long options that do not conflict with short options can start with a '-' as well as '--'
+	 * @param shortOptionPrefix The character introducing short options
+	 * @param longOptionPrefix The String introducing long options
+	 * @param nameValueSeparator The String separating a long option name from its argument
+	 * @param ignoreOptionCase true if option names and characters are matched case-insensitively
+	 */
+	public OptionSchema(final String progname, String optstring, final LongOpt[] longOptions, final boolean longOnly,
+			final char shortOptionPrefix, final String longOptionPrefix, final String nameValueSeparator, final boolean ignoreOptionCase) {
+		this.optionPrefixStr = new String(new char[] {shortOptionPrefix});
+		this.optionPrefix = shortOptionPrefix;
+		this.longOptionPrefix = longOptionPrefix;
+		this.nameValueSeparator = nameValueSeparator;
+		this.ignoreOptionCase = ignoreOptionCase;
+		this.nonOptionSeparator = OptionSchema.DEF_NON_OPTION_SEPARATOR;
+		if (optstring.length() == 0) { optstring = " "; }
+		this.progname = progname;
+		this.longOptions = longOptions == null ? null : longOptions.clone();
+		this.longOptionIndex = longOptions == null ? null : new LongOptionIndex(this.longOptions, ignoreOptionCase);
+		this.longOptionDictionary = null;
+		this.longOnly = longOnly;
+		// Check for property "gnu.posixly_correct" to determine whether to
+		// strictly follow the POSIX standard.  This replaces the "POSIXLY_CORRECT"
+		// environment variable in the C version
+		if (System.getProperty("gnu.posixly_correct", null) == null) {
+			this.posixlyCorrect = false;
+			this.messages = Messages.get(Locale.getDefault());
+		} else {
+			this.posixlyCorrect = true;
+			this.messages = Messages.get(Locale.US);
+		}
+		// Determine how to handle the ordering of options and non-options
+		if (optstring.charAt(0) == '-') {
+			this.ordering = OptionSchema.RETURN_IN_ORDER;
+			if (optstring.length() > 1) { optstring = optstring.substring(1); }
+		} else if (optstring.charAt(0) == '+') {
+			this.ordering = OptionSchema.REQUIRE_ORDER;
+			if (optstring.length() > 1) { optstring = optstring.substring(1); }
+		} else if (this.posixlyCorrect) {
+			this.ordering = OptionSchema.REQUIRE_ORDER;
+		} else {
+			this.ordering = OptionSchema.PERMUTE; // The normal default case
+		}
+		this.optstring = optstring;
+		this.shortOptions = new ShortOptionTable(optstring, ignoreOptionCase);
+		this.typedOptions = new int[0];
+		this.valueTypes = new ValueType[0];
+		this.parseListener = null;
+	}
+
+	/**
+	 * Copy constructor used by withOptstring(), withOrdering(),
+	 * withValueType(), withLongOptionDictionary() and withParseListener().
+	 * The option string, ordering, value types, long option dictionary and
+	 * listener are replaced verbatim, everything else is shared with the
+	 * original.
+	 */
+	private OptionSchema(final OptionSchema other, final String optstring, final int ordering,
+			final int[] typedOptions, final ValueType[] valueTypes, final LongOptionDictionary longOptionDictionary,
+			final ParseListener parseListener) {
+		this.progname = other.progname;
+		this.optstring = optstring;
+		this.shortOptions = new ShortOptionTable(optstring, other.ignoreOptionCase);
+		if (longOptionDictionary == other.longOptionDictionary) {
+			this.longOptions = other.longOptions;
+			this.longOptionIndex = other.longOptionIndex;
+		} else {
+			this.longOptions = longOptionDictionary.longOptions();
+			this.longOptionIndex = null;
+		}
+		this.longOptionDictionary = longOptionDictionary;
+		this.longOnly = other.longOnly;
+		this.posixlyCorrect = other.posixlyCorrect;
+		this.ordering = ordering;
+		this.messages = other.messages;
+		this.nameValueSeparator = other.nameValueSeparator;
+		this.longOptionPrefix = other.longOptionPrefix;
+		this.nonOptionSeparator = other.nonOptionSeparator;
+		this.optionPrefix = other.optionPrefix;
+		this.optionPrefixStr = other.optionPrefixStr;
+		this.ignoreOptionCase = other.ignoreOptionCase;
+		this.typedOptions = typedOptions;
+		this.valueTypes = valueTypes;
+		this.parseListener = parseListener;
+	}
+
+	/**
+	 * Create a new parser cursor over the given argument vector.  Note that,
+	 * as with every Getopt object, the array may be permuted while it is
+	 * being parsed.
+	 *
+	 * @param argv The String array passed as the command line to the program
+	 *
+	 * @return A Getopt object ready for its first call to getopt()
+	 */
+	public Getopt parser(final String[] argv) {
+		return new Getopt(this, argv);
+	}
+
+	/**
+	 * Create a parser that reads its arguments from an iterator instead of
+	 * an array, for argument lists too large to hold in memory at once.
+	 *
+	 * @param args The arguments, which are read as they are parsed
+	 * @param operands Receives the non-option arguments, see StreamingGetopt
+	 *
+	 * @return A StreamingGetopt object ready for its first call to getopt()
+	 */
+	public StreamingGetopt streamingParser(final Iterator<String> args, final Consumer<String> operands) {
+		return new StreamingGetopt(this, args, operands);
+	}
+
+	/**
+	 * Parse a whole argument vector in one call and return the result.
+	 * This runs the same getopt() loop as a Getopt object created by
+	 * parser(), but on a copy of argv, and collects every option, operand
+	 * and error into an immutable ParsedArgs object.  Errors are not
+	 * printed; they are available from ParsedArgs.getDiagnostics().  The
+	 * flag arrays of the long options are not written to.  This method is
+	 * thread-safe.
+	 *
+	 * @param argv The String array passed as the command line to the program
+	 *
+	 * @return The parsed options and operands
+	 */
+	public ParsedArgs parse(final String[] argv) {
+		return ParsedArgs.parse(this, argv);
+	}
+
+	/**
+	 * Returns a schema that is identical to this one except for the option
+	 * string, which is used as is.  Like Getopt.setOptstring(), this does
+	 * not re-evaluate a leading '+' or '-'.
+	 *
+	 * @param optstring The new option string to use
+	 *
+	 * @return A new OptionSchema
+	 */
+	public OptionSchema withOptstring(String optstring) {
+		if (optstring.length() == 0) { optstring = " "; }
+		return new OptionSchema(this, optstring, this.ordering, this.typedOptions, this.valueTypes, this.longOptionDictionary, this.parseListener);
+	}
+
+	/**
+	 * Returns a schema that is identical to this one except for the
+	 * ordering, one of PERMUTE, REQUIRE_ORDER or RETURN_IN_ORDER.
+	 */
+	OptionSchema withOrdering(final int ordering) {
+		return ordering == this.ordering ? this : new OptionSchema(this, this.optstring, ordering, this.typedOptions, this.valueTypes, this.longOptionDictionary, this.parseListener);
+	}
+
+	/**
+	 * Returns a schema that is identical to this one except that the
+	 * arguments of the given option are converted to the given type by
+	 * parse().  The option is identified by the value getopt() returns for
+	 * it: the option character, or the val of a long option.  A previous
+	 * type of the option is replaced.
+	 *
+	 * @param option The option character or long option val
+	 * @param type The type of its argument
+	 *
+	 * @return A new OptionSchema
+	 */
+	public OptionSchema withValueType(final int option, final ValueType type) {
+		int pos = Arrays.binarySearch(this.typedOptions, option);
+		final int[] typedOptions;
+		final ValueType[] valueTypes;
+		if (pos >= 0) {
+			typedOptions = this.typedOptions;
+			valueTypes = this.valueTypes.clone();
+		} else {
+			pos = -pos - 1;
+			typedOptions = new int[this.typedOptions.length + 1];
+			valueTypes = new ValueType[typedOptions.length];
+			System.arraycopy(this.typedOptions, 0, typedOptions, 0, pos);
+			System.arraycopy(this.typedOptions, pos, typedOptions, pos + 1, this.typedOptions.length - pos);
+			System.arraycopy(this.valueTypes, 0, valueTypes, 0, pos);
+			System.arraycopy(this.valueTypes, pos, valueTypes, pos + 1, this.valueTypes.length - pos);
+			typedOptions[pos] = option;
+		}
+		valueTypes[pos] = type;
+		return new OptionSchema(this, this.optstring, this.ordering, typedOptions, valueTypes, this.longOptionDictionary, this.parseListener);
+	}
+
+	/**
+	 * Returns a schema that is identical to this one except that its long
+	 * options are those of the given dictionary, which also replaces the
+	 * name index built by the constructor.  This is meant for large, static
+	 * sets of long options: compile the schema without long options and
+	 * add a dictionary that was built once and deserialized.
+	 *
+	 * @param dictionary The long options
+	 *
+	 * @return A new OptionSchema
+	 *
+	 * @exception IllegalArgumentException If the dictionary does not match names with the case sensitivity of this schema
+	 */
+	public OptionSchema withLongOptionDictionary(final LongOptionDictionary dictionary) {
+		if (dictionary.isIgnoreCase() != this.ignoreOptionCase) {
+			throw new IllegalArgumentException("dictionary ignoreCase=" + dictionary.isIgnoreCase() + " does not match schema");
+		}
+		return new OptionSchema(this, this.optstring, this.ordering, this.typedOptions, this.valueTypes, dictionary, this.parseListener);
+	}
+
+	/**
+	 * Returns a schema that is identical to this one except that every
+	 * Getopt object it creates, including those used by parse(), reports to
+	 * the given listener.  The listener is called from every thread that
+	 * parses with the schema.
+	 *
+	 * @param parseListener The listener, for example a ParseMetrics object, or null for none
+	 *
+	 * @return A new OptionSchema
+	 *
+	 * @see Getopt#setParseListener(ParseListener)
+	 */
+	public OptionSchema withParseListener(final ParseListener parseListener) {
+		return new OptionSchema(this, this.optstring, this.ordering, this.typedOptions, this.valueTypes, this.longOptionDictionary, parseListener);
+	}
+
+	/**
+	 * Returns the type declared for the option with withValueType(), or
+	 * null if its arguments are kept as Strings.
+	 */
+	public ValueType getValueType(final int option) {
+		final int pos = Arrays.binarySearch(this.typedOptions, option);
+		return pos < 0 ? null : this.valueTypes[pos];
+	}
+
+	public String getProgname() {
+		return this.progname;
+	}
+
+	public String getOptstring() {
+		return this.optstring;
+	}
+
+	/**
+	 * Returns a copy of the long options of this schema, or null if it
+	 * handles short options only.
+	 */
+	public LongOpt[] getLongOptions() {
+		return this.longOptions == null ? null : this.longOptions.clone();
+	}
+
+	public boolean isLongOnly() {
+		return this.longOnly;
+	}
+
+	public boolean isPosixlyCorrect() {
+		return this.posixlyCorrect;
+	}
+
+	public String getNameValueSeparator() {
+		return this.nameValueSeparator;
+	}
+
+	public String getLongOptionPrefix() {
+		return this.longOptionPrefix;
+	}
+
+	public String getNonOptionSeparator() {
+		return this.nonOptionSeparator;
+	}
+
+	public char getOptionPrefix() {
+		return this.optionPrefix;
+	}
+
+	public boolean isIgnoreOptionCase() {
+		return this.ignoreOptionCase;
+	}
+
+	/*
+	 * Package-private accessors for Getopt
+	 */
+
+	LongOpt[] longOptions() {
+		return this.longOptions;
+	}
+
+	ShortOptionTable shortOptions() {
+		return this.shortOptions;
+	}
+
+	/**
+	 * Look up a long option name, see SortedLongOptions.lookup()
+	 */
+	int lookupLongOption(final String s, final int start, final int end) {
+		return this.longOptionDictionary != null ? this.longOptionDictionary.lookup(s, start, end) : this.longOptionIndex.lookup(s, start, end);
+	}
+
+	/**
+	 * The option an ambiguous abbreviation is reported against, see
+	 * SortedLongOptions.firstAbbreviated()
+	 */
+	int firstAbbreviatedLongOption(final String s, final int start, final int end) {
+		return this.longOptionDictionary != null ? this.longOptionDictionary.firstAbbreviated(s, start, end) : this.longOptionIndex.firstAbbreviated(s, start, end);
+	}
+
+	/**
+	 * Pass every long option whose name starts with a prefix to action, in
+	 * order of name, see SortedLongOptions.forEachPrefixed()
+	 */
+	void forEachLongOptionPrefixed(final String s, final int start, final int end, final IntConsumer action) {
+		if (this.longOptionDictionary != null) {
+			this.longOptionDictionary.forEachPrefixed(s, start, end, action);
+		} else {
+			this.longOptionIndex.forEachPrefixed(s, start, end, action);
+		}
+	}
+
+	ParseListener parseListener() {
+		return this.parseListener;
+	}
+
+	int ordering() {
+		return this.ordering;
+	}
+
+	Messages messages() {
+		return this.messages;
+	}
+
+	String optionPrefixStr() {
+		return this.optionPrefixStr;
+	}
+
+	/**
+	 * Returns true if arg is not an option element: it is empty, does not
+	 * start with the option prefix or is just the prefix.
+	 */
+	boolean isNonoption(final String arg) {
+		return arg.equals("") || arg.charAt(0) != this.optionPrefix || arg.equals(this.optionPrefixStr);
+	}
+}
@@ -0,0 +1,138 @@
+package gnu.getopt;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the results of OptionSchema.parse() for one schema.
+ * Programs that are invoked with the same argument vector over and over
+ * again get the ParsedArgs object built the first time back, without
+ * running the getopt() loop again.  Since ParsedArgs objects are
+ * immutable, sharing them is safe.
+ * <p>
+ * The cache keeps the most recently used results up to its maximum size
+ * and counts hits and misses.  It can be used from several threads; the
+ * lock is only held to look up and insert results, never while parsing.
+ * Two threads that miss on the same argv at the same time may both parse
+ * it, in which case the first result stored is kept.
+ */
+public final class ParseCache {
+
+	private final OptionSchema schema;
+	private final int maximumSize;
+	private final Map<Key, ParsedArgs> results;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param schema The schema to parse with
+	 * @param maximumSize The maximum number of results kept
+	 */
+	public ParseCache(final OptionSchema schema, final int maximumSize) {
+		if (maximumSize < 1) { throw new IllegalArgumentException("maximumSize " + maximumSize); }
+		this.schema = schema;
+		this.maximumSize = maximumSize;
+		this.results = new LinkedHashMap<Key, ParsedArgs>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, ParsedArgs> eldest) {
+				return size() > ParseCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the result of schema.parse(argv), from the cache if an equal
+	 * argv has been parsed before.
+	 *
+	 * @param argv The String array passed as the command line to the program
+	 *
+	 * @return The parsed options and operands
+	 */
+	public ParsedArgs parse(final String[] argv) {
+		final Key key = new Key(argv.clone());
+		synchronized (this.results) {
+			final ParsedArgs cached = this.results.get(key);
+			if (cached != null) {
+				this.hits++;
+				return cached;
+			}
+			this.misses++;
+		}
+		final ParsedArgs parsed = this.schema.parse(key.argv);
+		synchronized (this.results) {
+			final ParsedArgs raced = this.results.putIfAbsent(key, parsed);
+			return raced != null ? raced : parsed;
+		}
+	}
+
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Returns the number of results currently cached.
+	 */
+	public int size() {
+		synchronized (this.results) {
+			return this.results.size();
+		}
+	}
+
+	/**
+	 * Returns how many calls to parse() were answered from the cache.
+	 */
+	public long getHitCount() {
+		synchronized (this.results) {
+			return this.hits;
+		}
+	}
+
+	/**
+	 * Returns how many calls to parse() had to parse their argv.
+	 */
+	public long getMissCount() {
+		synchronized (this.results) {
+			return this.misses;
+		}
+	}
+
+	/**
+	 * Drop all cached results.  The statistics are kept.
+	 */
+	public void clear() {
+		synchronized (this.results) {
+			this.results.clear();
+		}
+	}
+
+	/**
+	 * A private copy of an argv with its hash code computed once
+	 */
+	private static final class Key {
+
+		final String[] argv;
+		private final int hash;
+
+		Key(final String[] argv) {
+			this.argv = argv;
+			this.hash = Arrays.hashCode(argv);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof Key && ((Key)o).hash == this.hash && Arrays.equals(((Key)o).argv, this.argv);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package gnu.getopt;
+
+/**
+ * Receives instrumentation events from Getopt: every option it returns,
+ * every abbreviated long option name it resolves, every error it finds
+ * and, when the scan ends, a summary of the whole parse.
+ * <p>
+ * A listener is installed for all parsers of a schema with
+ * OptionSchema.withParseListener(), or for a single Getopt object with
+ * Getopt.setParseListener().  Without a listener, getopt() does no
+ * instrumentation work at all beyond checking for one.  With a listener,
+ * it is called on the parsing thread, from inside getopt(); a listener
+ * shared through a schema must therefore be thread-safe, and all of them
+ * should be quick.  ParseMetrics collects the events into counters and a
+ * duration histogram.
+ * <p>
+ * Every method has an empty default implementation, so a listener only
+ * overrides the events it is interested in.
+ *
+ * @see ParseMetrics
+ */
+public interface ParseListener {
+
+	/**
+	 * Called when getopt() returns an option.  Non-options returned as 1
+	 * in RETURN_IN_ORDER mode and errors are not options.
+	 *
+	 * @param option The value getopt() returns
+	 */
+	default void optionParsed(final int option) {
+	}
+
+	/**
+	 * Called before optionParsed() when the option is a long option given
+	 * by an unambiguous abbreviation of its name.
+	 *
+	 * @param longind The index of the long option, as getLongind() returns it
+	 */
+	default void abbreviationResolved(final int longind) {
+	}
+
+	/**
+	 * Called for every error getopt() finds, whether or not it is reported
+	 * to the DiagnosticSink, and for every Getopt.reportInvalidValue().
+	 *
+	 * @param kind The kind of error
+	 */
+	default void errorFound(final Diagnostic.Kind kind) {
+	}
+
+	/**
+	 * Called once, when getopt() returns -1 for the first time.
+	 *
+	 * @param arguments The number of arguments scanned
+	 * @param options The number of options returned
+	 * @param errors The number of errors found
+	 * @param nanos The time spent inside getopt(), in nanoseconds
+	 */
+	default void parseCompleted(final int arguments, final int options, final int errors, final long nanos) {
+	}
+}
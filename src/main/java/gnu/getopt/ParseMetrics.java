@@ -0,0 +1,146 @@
+package gnu.getopt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe ParseListener that counts what getopt() finds and records
+ * how long whole parses take, for export to a metrics system:
+ * <p>
+ * <pre>
+ * static final ParseMetrics METRICS = new ParseMetrics();
+ * static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:", longopts).withParseListener(METRICS);
+ * </pre>
+ * <p>
+ * Parse durations are kept in a histogram of powers of two: bucket i
+ * counts the parses that took at least 2^i and less than 2^(i+1)
+ * nanoseconds (bucket 0 also counts parses measured as 0).  Counters are
+ * LongAdders, so recording does not contend between threads; reading them
+ * while parses are running gives a consistent value for each counter but
+ * not across counters.
+ */
+public final class ParseMetrics implements ParseListener {
+
+	/**
+	 * Number of buckets of the duration histogram
+	 */
+	public static final int BUCKETS = 64;
+
+	private final LongAdder parses = new LongAdder();
+	private final LongAdder arguments = new LongAdder();
+	private final LongAdder options = new LongAdder();
+	private final LongAdder abbreviations = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+	private final LongAdder[] errors = new LongAdder[Diagnostic.Kind.values().length];
+	private final AtomicLongArray histogram = new AtomicLongArray(ParseMetrics.BUCKETS);
+
+	public ParseMetrics() {
+		for (int i = 0; i < this.errors.length; i++) { this.errors[i] = new LongAdder(); }
+	}
+
+	@Override
+	public void optionParsed(final int option) {
+		this.options.increment();
+	}
+
+	@Override
+	public void abbreviationResolved(final int longind) {
+		this.abbreviations.increment();
+	}
+
+	@Override
+	public void errorFound(final Diagnostic.Kind kind) {
+		this.errors[kind.ordinal()].increment();
+	}
+
+	@Override
+	public void parseCompleted(final int arguments, final int options, final int errors, final long nanos) {
+		this.parses.increment();
+		this.arguments.add(arguments);
+		this.nanos.add(nanos);
+		this.histogram.incrementAndGet(ParseMetrics.bucket(nanos));
+	}
+
+	/**
+	 * Returns the number of completed parses.
+	 */
+	public long getParseCount() {
+		return this.parses.sum();
+	}
+
+	/**
+	 * Returns the number of arguments scanned by the completed parses.
+	 */
+	public long getArgumentCount() {
+		return this.arguments.sum();
+	}
+
+	/**
+	 * Returns the number of options returned by getopt().
+	 */
+	public long getOptionCount() {
+		return this.options.sum();
+	}
+
+	/**
+	 * Returns the number of long options given as an abbreviation.
+	 */
+	public long getAbbreviationCount() {
+		return this.abbreviations.sum();
+	}
+
+	/**
+	 * Returns the number of errors of the given kind.  Unknown options
+	 * are counted as UNRECOGNIZED (long) and INVALID (short), missing
+	 * arguments as REQUIRES_ARGUMENT.
+	 */
+	public long getErrorCount(final Diagnostic.Kind kind) {
+		return this.errors[kind.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the number of errors of all kinds.
+	 */
+	public long getErrorCount() {
+		long sum = 0;
+		for (final LongAdder count : this.errors) { sum += count.sum(); }
+		return sum;
+	}
+
+	/**
+	 * Returns the time spent in getopt() by the completed parses, in
+	 * nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return this.nanos.sum();
+	}
+
+	/**
+	 * Returns a copy of the duration histogram, see the class comment.
+	 */
+	public long[] getDurationHistogram() {
+		final long[] result = new long[ParseMetrics.BUCKETS];
+		for (int i = 0; i < result.length; i++) { result[i] = this.histogram.get(i); }
+		return result;
+	}
+
+	/**
+	 * Set every counter and the histogram back to zero.
+	 */
+	public void reset() {
+		this.parses.reset();
+		this.arguments.reset();
+		this.options.reset();
+		this.abbreviations.reset();
+		this.nanos.reset();
+		for (final LongAdder count : this.errors) { count.reset(); }
+		for (int i = 0; i < ParseMetrics.BUCKETS; i++) { this.histogram.set(i, 0); }
+	}
+
+	/**
+	 * Returns the histogram bucket of a duration.
+	 */
+	static int bucket(final long nanos) {
+		return 63 - Long.numberOfLeadingZeros(Math.max(1, nanos));
+	}
+}
@@ -0,0 +1,172 @@
+package gnu.getopt;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses a command line that is being edited, such as the line an
+ * interactive console validates while the user types, and reparses only
+ * what has changed.
+ * <p>
+ * Every call to update() gets the whole current argument vector (or
+ * updateLine() the whole line) and returns the same ParsedArgs that
+ * OptionSchema.parse() would.  The session remembers, for the previous
+ * vector, the state of the getopt() scan at the start of every argv
+ * element.  The new vector is compared with the previous one, and the scan
+ * is resumed at the last saved state before the first element that
+ * differs, so appending to or editing the end of a long line costs time
+ * proportional to the change, not to the length of the line.  Only
+ * building the ParsedArgs result still copies the occurrence arrays.
+ * <p>
+ * A ParseSession is not thread-safe; use one per line being edited.
+ */
+public final class ParseSession {
+
+	private static final String[] NONE = new String[0];
+
+	private final OptionSchema schema;
+	private final Getopt getopt;
+	private final ParsedArgs.Recorder recorder = new ParsedArgs.Recorder(16);
+	private String[] argv = ParseSession.NONE;
+	private ParsedArgs result;
+	private int reparsedFrom;
+	/*
+	 * The saved states of the scan, in order of optind: where the scan
+	 * was, how much had been recorded, and what resume() needs, including
+	 * the counts the ParseListener gets
+	 */
+	private int checkpoints;
+	private int[] optinds = new int[16];
+	private int[] occurrences = new int[16];
+	private int[] diagnostics = new int[16];
+	private int[] nonoptions = new int[16];
+	private int[] firstNonopts = new int[16];
+	private int[] lastNonopts = new int[16];
+	private int[] skippedCounts = new int[16];
+	private int[] optopts = new int[16];
+	private int[] parsedOptions = new int[16];
+	private int[] parseErrors = new int[16];
+	private long[] parseNanos = new long[16];
+
+	/**
+	 * @param schema The schema to parse with
+	 */
+	public ParseSession(final OptionSchema schema) {
+		this.schema = schema;
+		this.getopt = schema.parser(ParseSession.NONE);
+		this.getopt.setDiagnosticSink(this.recorder);
+		this.getopt.setStoreFlags(false);
+		this.getopt.setDeferredPermutation(true);
+		checkpoint();
+		// Nothing to scan, and nothing to tell the ParseListener
+		this.result = this.recorder.build(this.getopt);
+	}
+
+	/**
+	 * Parse the current argument vector of the line.
+	 *
+	 * @param argv The arguments, which are copied
+	 *
+	 * @return The parsed options and operands, as OptionSchema.parse() returns them
+	 */
+	public ParsedArgs update(final String[] argv) {
+		int changed = 0;
+		final int common = Math.min(argv.length, this.argv.length);
+		while (changed < common && argv[changed].equals(this.argv[changed])) { changed++; }
+		if (changed == argv.length && argv.length == this.argv.length) { return this.result; }
+		this.argv = argv.clone();
+		// Resume at the last state saved before the changed element.  A scan
+		// that ended exactly at the changed element may have depended on it,
+		// for example "-o" at the end of argv, which now gets an argument.
+		int lo = 1;
+		int hi = this.checkpoints;
+		while (lo < hi) {
+			final int mid = lo + hi >>> 1;
+			if (this.optinds[mid] < changed) { lo = mid + 1; } else { hi = mid; }
+		}
+		final int pos = lo - 1;
+		this.checkpoints = pos + 1;
+		this.recorder.truncate(this.occurrences[pos], this.diagnostics[pos], this.nonoptions[pos]);
+		this.getopt.resume(this.argv.clone(), this.optinds[pos], this.firstNonopts[pos], this.lastNonopts[pos], this.skippedCounts[pos],
+				this.optopts[pos], this.parsedOptions[pos], this.parseErrors[pos], this.parseNanos[pos]);
+		this.result = parseFrom(this.optinds[pos]);
+		return this.result;
+	}
+
+	/**
+	 * Split a line into arguments with the rules of response files
+	 * (whitespace separates, quotes group, backslash escapes) and parse
+	 * them with update().
+	 *
+	 * @param line The line as typed so far
+	 *
+	 * @return The parsed options and operands
+	 */
+	public ParsedArgs updateLine(final String line) {
+		final List<String> args = new ArrayList<>();
+		for (final ArgumentTokenizer tokenizer = new ArgumentTokenizer(CharBuffer.wrap(line)); tokenizer.hasNext();) {
+			args.add(tokenizer.next());
+		}
+		return update(args.toArray(new String[args.size()]));
+	}
+
+	/**
+	 * Returns the result of the last update().
+	 */
+	public ParsedArgs getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Returns the index of the argv element at which the last update()
+	 * resumed the scan, the number of elements it did not reparse.
+	 */
+	public int getReparsedFrom() {
+		return this.reparsedFrom;
+	}
+
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	private ParsedArgs parseFrom(final int optind) {
+		this.reparsedFrom = optind;
+		int c;
+		while ((c = this.getopt.getopt()) != -1) {
+			this.recorder.add(c, this.getopt);
+			if (this.getopt.atElementBoundary()) { checkpoint(); }
+		}
+		return this.recorder.build(this.getopt);
+	}
+
+	private void checkpoint() {
+		if (this.checkpoints == this.optinds.length) {
+			final int capacity = this.checkpoints * 2;
+			this.optinds = Arrays.copyOf(this.optinds, capacity);
+			this.occurrences = Arrays.copyOf(this.occurrences, capacity);
+			this.diagnostics = Arrays.copyOf(this.diagnostics, capacity);
+			this.nonoptions = Arrays.copyOf(this.nonoptions, capacity);
+			this.firstNonopts = Arrays.copyOf(this.firstNonopts, capacity);
+			this.lastNonopts = Arrays.copyOf(this.lastNonopts, capacity);
+			this.skippedCounts = Arrays.copyOf(this.skippedCounts, capacity);
+			this.optopts = Arrays.copyOf(this.optopts, capacity);
+			this.parsedOptions = Arrays.copyOf(this.parsedOptions, capacity);
+			this.parseErrors = Arrays.copyOf(this.parseErrors, capacity);
+			this.parseNanos = Arrays.copyOf(this.parseNanos, capacity);
+		}
+		final int i = this.checkpoints++;
+		this.optinds[i] = this.getopt.getOptind();
+		this.occurrences[i] = this.recorder.size;
+		this.diagnostics[i] = this.recorder.diagnostics.size();
+		this.nonoptions[i] = this.recorder.nonoptions.size();
+		this.firstNonopts[i] = this.getopt.firstNonopt();
+		this.lastNonopts[i] = this.getopt.lastNonopt();
+		this.skippedCounts[i] = this.getopt.skippedCount();
+		this.optopts[i] = this.getopt.getOptopt();
+		this.parsedOptions[i] = this.getopt.parsedOptions();
+		this.parseErrors[i] = this.getopt.parseErrors();
+		this.parseNanos[i] = this.getopt.parseNanos();
+	}
+}
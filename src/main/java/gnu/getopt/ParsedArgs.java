@@ -0,0 +1,603 @@
+package gnu.getopt;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The complete result of parsing one argument vector, as returned by
+ * OptionSchema.parse().  Instead of calling getopt() in a loop and
+ * reading getOptarg(), getOptopt() and getLongind() after every call, the
+ * caller gets every option occurrence in command line order together
+ * with the operands (the non-option argv elements) and any errors.
+ * <p>
+ * Occurrence i is described by optionAt(i), the value getopt() returned
+ * for it, and by longindAt(i), optargAt(i), optoptAt(i) and
+ * argvIndexAt(i).  An option can also be queried directly by its
+ * character (or, more generally, by the value getopt() returns for it)
+ * and long options by their name:
+ * <p>
+ * <pre>
+ * ParsedArgs args = SCHEMA.parse(argv);
+ * if (args.has('v'))
+ *   verbose = true;
+ * String dir = args.getArgument("outputdir");
+ * for (String file : args.getOperands())
+ *   ...
+ * </pre>
+ * <p>
+ * The arguments of options declared with OptionSchema.withValueType() are
+ * converted while parsing and read with getInt(), getLong(), getDouble(),
+ * getBoolean(), getEnum(), getDuration() and getPath().
+ * <p>
+ * The occurrences are kept in primitive arrays, and has(), count() and
+ * getArgument() are answered from index tables built once.  ParsedArgs
+ * objects are immutable and can be cached and shared between threads.
+ *
+ * @see OptionSchema#parse(String[])
+ */
+public final class ParsedArgs {
+
+	/**
+	 * Value of longindAt() for occurrences that are not long options
+	 */
+	public static final int NO_LONGIND = -1;
+
+	private static final int INTEGRAL_KINDS = 1 << ValueType.INT_KIND | 1 << ValueType.LONG_KIND
+			| 1 << ValueType.SIZE_KIND | 1 << ValueType.DURATION_KIND;
+
+	private final OptionSchema schema;
+	private final int size;
+	private final int[] options;
+	private final int[] longinds;
+	private final int[] optopts;
+	private final int[] argvIndexes;
+	private final String[] optargs;
+	private final boolean[] errors;
+	/**
+	 * The converted arguments of options with a ValueType, see
+	 * ValueType.toBits(), and the converted PATH arguments.  Null if no
+	 * option had a ValueType.
+	 */
+	private final long[] values;
+	private final Object[] objects;
+	private final String[] operands;
+	private final List<Diagnostic> diagnostics;
+	/**
+	 * Open-addressing table from option value to its last occurrence and count
+	 */
+	private final int[] keys;
+	private final int[] lastByKey;
+	private final int[] countByKey;
+	private final boolean[] usedKeys;
+	/**
+	 * Last occurrence and count of each long option, by index in the long option array
+	 */
+	private final int[] lastByLongind;
+	private final int[] countByLongind;
+
+	private ParsedArgs(final OptionSchema schema, final Recorder recorder, final String[] operands) {
+		this.schema = schema;
+		this.size = recorder.size;
+		this.options = Arrays.copyOf(recorder.options, this.size);
+		this.longinds = Arrays.copyOf(recorder.longinds, this.size);
+		this.optopts = Arrays.copyOf(recorder.optopts, this.size);
+		this.argvIndexes = Arrays.copyOf(recorder.argvIndexes, this.size);
+		this.optargs = Arrays.copyOf(recorder.optargs, this.size);
+		this.errors = Arrays.copyOf(recorder.errors, this.size);
+		this.values = recorder.values == null ? null : Arrays.copyOf(recorder.values, this.size);
+		this.objects = recorder.objects == null ? null : Arrays.copyOf(recorder.objects, this.size);
+		this.operands = operands;
+		this.diagnostics = recorder.diagnostics.isEmpty() ? Collections.<Diagnostic>emptyList()
+				: Collections.unmodifiableList(new ArrayList<>(recorder.diagnostics));
+		int tableSize = 2;
+		while (tableSize < this.size * 2) { tableSize <<= 1; }
+		this.keys = new int[tableSize];
+		this.lastByKey = new int[tableSize];
+		this.countByKey = new int[tableSize];
+		this.usedKeys = new boolean[tableSize];
+		final LongOpt[] longOptions = schema.longOptions();
+		this.lastByLongind = new int[longOptions == null ? 0 : longOptions.length];
+		this.countByLongind = new int[this.lastByLongind.length];
+		Arrays.fill(this.lastByLongind, -1);
+		for (int i = 0; i < this.size; i++) {
+			if (this.errors[i]) { continue; }
+			final int slot = slot(this.options[i]);
+			this.usedKeys[slot] = true;
+			this.keys[slot] = this.options[i];
+			this.lastByKey[slot] = i;
+			this.countByKey[slot]++;
+			if (this.longinds[i] != ParsedArgs.NO_LONGIND) {
+				this.lastByLongind[this.longinds[i]] = i;
+				this.countByLongind[this.longinds[i]]++;
+			}
+		}
+	}
+
+	/**
+	 * Parse an argument vector against a schema.  The argument vector is
+	 * copied, so the caller's array is not permuted.
+	 */
+	static ParsedArgs parse(final OptionSchema schema, final String[] argv) {
+		final Getopt g = schema.parser(argv.clone());
+		final Recorder recorder = new Recorder(argv.length);
+		g.setDiagnosticSink(recorder);
+		g.setStoreFlags(false);
+		g.setDeferredPermutation(true);
+		return parse(g, recorder);
+	}
+
+	/**
+	 * Run the getopt() loop of g to its end and collect the result.  The
+	 * recorder must be the DiagnosticSink of g.
+	 */
+	static ParsedArgs parse(final Getopt g, final Recorder recorder) {
+		int c;
+		while ((c = g.getopt()) != -1) {
+			recorder.add(c, g);
+		}
+		return recorder.build(g);
+	}
+
+	/**
+	 * Returns the schema the arguments were parsed against.
+	 */
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * Returns the number of option occurrences, including errors.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the value getopt() returned for occurrence i: the option
+	 * character, the val of a long option, 0 for a long option with a
+	 * flag, 1 for a non-option in RETURN_IN_ORDER mode, or '?' or ':' for
+	 * an error.  Note that the flag arrays of long options are not written
+	 * to; use longindAt() to tell which long option was given.
+	 */
+	public int optionAt(final int i) {
+		checkIndex(i);
+		return this.options[i];
+	}
+
+	/**
+	 * Returns the index into the long option array of occurrence i, or
+	 * NO_LONGIND if it is not a long option or an ambiguous one.
+	 */
+	public int longindAt(final int i) {
+		checkIndex(i);
+		return this.longinds[i];
+	}
+
+	/**
+	 * Returns the argument of occurrence i, or null if it has none.
+	 */
+	public String optargAt(final int i) {
+		checkIndex(i);
+		return this.optargs[i];
+	}
+
+	/**
+	 * Returns true if occurrence i is an error, that is one of the
+	 * diagnostics.  Errors are not counted by has() and count().
+	 */
+	public boolean isErrorAt(final int i) {
+		checkIndex(i);
+		return this.errors[i];
+	}
+
+	/**
+	 * Returns the value getOptopt() had after occurrence i.  This is only
+	 * meaningful for errors.
+	 */
+	public int optoptAt(final int i) {
+		checkIndex(i);
+		return this.optopts[i];
+	}
+
+	/**
+	 * Returns the index in the original argv of the element occurrence i
+	 * was found in.
+	 */
+	public int argvIndexAt(final int i) {
+		checkIndex(i);
+		return this.argvIndexes[i];
+	}
+
+	/**
+	 * Returns true if getopt() returned the given value at least once.
+	 * For short options this is the option character.
+	 */
+	public boolean has(final int option) {
+		return this.usedKeys[slot(option)];
+	}
+
+	/**
+	 * Returns true if the long option with the given name (not
+	 * abbreviated) was given at least once, in any abbreviation.
+	 */
+	public boolean has(final String longName) {
+		return count(longName) > 0;
+	}
+
+	/**
+	 * Returns how often getopt() returned the given value, not counting
+	 * errors.
+	 */
+	public int count(final int option) {
+		final int slot = slot(option);
+		return this.usedKeys[slot] ? this.countByKey[slot] : 0;
+	}
+
+	/**
+	 * Returns how often the long option with the given name was given.
+	 */
+	public int count(final String longName) {
+		final int longind = longind(longName);
+		return longind < 0 ? 0 : this.countByLongind[longind];
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of the option, or null
+	 * if the option was not given or had no argument.
+	 */
+	public String getArgument(final int option) {
+		final int slot = slot(option);
+		return this.usedKeys[slot] ? this.optargs[this.lastByKey[slot]] : null;
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of the long option with
+	 * the given name, or null if it was not given or had no argument.
+	 */
+	public String getArgument(final String longName) {
+		final int longind = longind(longName);
+		return longind < 0 || this.lastByLongind[longind] < 0 ? null : this.optargs[this.lastByLongind[longind]];
+	}
+
+	/**
+	 * Returns the arguments of all occurrences of the option, in order.
+	 * Occurrences without an argument and errors are skipped.
+	 */
+	public String[] getArguments(final int option) {
+		final List<String> result = new ArrayList<>();
+		for (int i = 0; i < this.size; i++) {
+			if (this.options[i] == option && !this.errors[i] && this.optargs[i] != null) { result.add(this.optargs[i]); }
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * Returns the arguments of all occurrences of the long option with the
+	 * given name, in order.  Occurrences without an argument and errors
+	 * are skipped.
+	 */
+	public String[] getArguments(final String longName) {
+		final int longind = longind(longName);
+		final List<String> result = new ArrayList<>();
+		for (int i = 0; longind >= 0 && i < this.size; i++) {
+			if (this.longinds[i] == longind && !this.errors[i] && this.optargs[i] != null) { result.add(this.optargs[i]); }
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of an INT option.
+	 *
+	 * @param option The option character or long option val
+	 * @param defaultValue Returned if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared as INT
+	 */
+	public int getInt(final int option, final int defaultValue) {
+		final int i = valued(option, last(option), 1 << ValueType.INT_KIND);
+		return i < 0 ? defaultValue : (int)this.values[i];
+	}
+
+	public int getInt(final String longName, final int defaultValue) {
+		final int i = valued(longName, 1 << ValueType.INT_KIND);
+		return i < 0 ? defaultValue : (int)this.values[i];
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of an INT, LONG, SIZE
+	 * or DURATION option, the latter two in bytes and nanoseconds.
+	 *
+	 * @param option The option character or long option val
+	 * @param defaultValue Returned if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared with one of these types
+	 */
+	public long getLong(final int option, final long defaultValue) {
+		final int i = valued(option, last(option), ParsedArgs.INTEGRAL_KINDS);
+		return i < 0 ? defaultValue : this.values[i];
+	}
+
+	public long getLong(final String longName, final long defaultValue) {
+		final int i = valued(longName, ParsedArgs.INTEGRAL_KINDS);
+		return i < 0 ? defaultValue : this.values[i];
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of a DOUBLE option.
+	 *
+	 * @param option The option character or long option val
+	 * @param defaultValue Returned if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared as DOUBLE
+	 */
+	public double getDouble(final int option, final double defaultValue) {
+		final int i = valued(option, last(option), 1 << ValueType.DOUBLE_KIND);
+		return i < 0 ? defaultValue : Double.longBitsToDouble(this.values[i]);
+	}
+
+	public double getDouble(final String longName, final double defaultValue) {
+		final int i = valued(longName, 1 << ValueType.DOUBLE_KIND);
+		return i < 0 ? defaultValue : Double.longBitsToDouble(this.values[i]);
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of a BOOLEAN option,
+	 * true if it had none.
+	 *
+	 * @param option The option character or long option val
+	 * @param defaultValue Returned if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared as BOOLEAN
+	 */
+	public boolean getBoolean(final int option, final boolean defaultValue) {
+		final int i = valued(option, last(option), 1 << ValueType.BOOLEAN_KIND);
+		return i < 0 ? defaultValue : this.values[i] != 0;
+	}
+
+	public boolean getBoolean(final String longName, final boolean defaultValue) {
+		final int i = valued(longName, 1 << ValueType.BOOLEAN_KIND);
+		return i < 0 ? defaultValue : this.values[i] != 0;
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of an option declared
+	 * with ValueType.enumeration(type).
+	 *
+	 * @param option The option character or long option val
+	 * @param type The enumeration class
+	 *
+	 * @return The constant, or null if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared with an enumeration type
+	 */
+	public <E extends Enum<E>> E getEnum(final int option, final Class<E> type) {
+		return constant(valued(option, last(option), 1 << ValueType.ENUM_KIND), type);
+	}
+
+	public <E extends Enum<E>> E getEnum(final String longName, final Class<E> type) {
+		return constant(valued(longName, 1 << ValueType.ENUM_KIND), type);
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of a DURATION option.
+	 *
+	 * @param option The option character or long option val
+	 *
+	 * @return The duration, or null if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared as DURATION
+	 */
+	public Duration getDuration(final int option) {
+		final int i = valued(option, last(option), 1 << ValueType.DURATION_KIND);
+		return i < 0 ? null : Duration.ofNanos(this.values[i]);
+	}
+
+	public Duration getDuration(final String longName) {
+		final int i = valued(longName, 1 << ValueType.DURATION_KIND);
+		return i < 0 ? null : Duration.ofNanos(this.values[i]);
+	}
+
+	/**
+	 * Returns the argument of the last occurrence of a PATH option.
+	 *
+	 * @param option The option character or long option val
+	 *
+	 * @return The path, or null if the option was not given
+	 *
+	 * @throws IllegalArgumentException If the option was not declared as PATH
+	 */
+	public Path getPath(final int option) {
+		final int i = valued(option, last(option), 1 << ValueType.PATH_KIND);
+		return i < 0 ? null : (Path)this.objects[i];
+	}
+
+	public Path getPath(final String longName) {
+		final int i = valued(longName, 1 << ValueType.PATH_KIND);
+		return i < 0 ? null : (Path)this.objects[i];
+	}
+
+	/**
+	 * Returns the non-option elements of argv in order.  In RETURN_IN_ORDER
+	 * mode this includes the elements that were also returned as
+	 * occurrences with the value 1.
+	 */
+	public String[] getOperands() {
+		return this.operands.clone();
+	}
+
+	public int getOperandCount() {
+		return this.operands.length;
+	}
+
+	public String getOperand(final int i) {
+		return this.operands[i];
+	}
+
+	/**
+	 * Returns the errors found while parsing.  Nothing is printed to the
+	 * standard error by OptionSchema.parse().
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return this.diagnostics;
+	}
+
+	public boolean hasErrors() {
+		return !this.diagnostics.isEmpty();
+	}
+
+	private int slot(final int option) {
+		final int mask = this.keys.length - 1;
+		int slot = (option * 0x9E3779B9 ^ option >>> 16) & mask;
+		while (this.usedKeys[slot] && this.keys[slot] != option) { slot = slot + 1 & mask; }
+		return slot;
+	}
+
+	private int longind(final String longName) {
+		if (this.schema.longOptions() == null) { return -1; }
+		final int longind = this.schema.lookupLongOption(longName, 0, longName.length());
+		return longind >= 0 && this.schema.longOptions()[longind].getName().length() == longName.length() ? longind : -1;
+	}
+
+	private int last(final int option) {
+		final int slot = slot(option);
+		return this.usedKeys[slot] ? this.lastByKey[slot] : -1;
+	}
+
+	/**
+	 * Check that the option was declared with one of the given kinds of
+	 * ValueType and return the occurrence if it has a converted value, or
+	 * -1.
+	 */
+	private int valued(final int option, final int occurrence, final int kinds) {
+		final ValueType type = this.schema.getValueType(option);
+		if (type == null || (kinds & 1 << type.kind()) == 0) {
+			throw new IllegalArgumentException("Option " + option + " is declared as " + type);
+		}
+		if (occurrence < 0) { return -1; }
+		if (type.kind() == ValueType.BOOLEAN_KIND) { return occurrence; }
+		if (type.kind() == ValueType.PATH_KIND) { return this.objects[occurrence] == null ? -1 : occurrence; }
+		return this.optargs[occurrence] == null ? -1 : occurrence;
+	}
+
+	private int valued(final String longName, final int kinds) {
+		final int longind = longind(longName);
+		if (longind < 0) { throw new IllegalArgumentException("Unknown long option " + longName); }
+		return valued(this.schema.longOptions()[longind].getVal(), this.lastByLongind[longind], kinds);
+	}
+
+	private <E extends Enum<E>> E constant(final int occurrence, final Class<E> type) {
+		return occurrence < 0 ? null : type.cast(this.schema.getValueType(this.options[occurrence]).constants()[(int)this.values[occurrence]]);
+	}
+
+	private void checkIndex(final int i) {
+		if (i < 0 || i >= this.size) { throw new IndexOutOfBoundsException(Integer.toString(i)); }
+	}
+
+	/**
+	 * Collects the occurrences while the getopt() loop runs.
+	 */
+	static final class Recorder implements DiagnosticSink {
+
+		int size;
+		int[] options;
+		int[] longinds;
+		int[] optopts;
+		int[] argvIndexes;
+		String[] optargs;
+		boolean[] errors;
+		long[] values;
+		Object[] objects;
+		final List<Diagnostic> diagnostics = new ArrayList<>();
+		final List<String> nonoptions = new ArrayList<>();
+		private boolean error;
+
+		Recorder(final int capacity) {
+			final int initial = Math.max(capacity, 4);
+			this.options = new int[initial];
+			this.longinds = new int[initial];
+			this.optopts = new int[initial];
+			this.argvIndexes = new int[initial];
+			this.optargs = new String[initial];
+			this.errors = new boolean[initial];
+		}
+
+		@Override
+		public void report(final Diagnostic diagnostic) {
+			this.diagnostics.add(diagnostic);
+			this.error = true;
+		}
+
+		void add(final int option, final Getopt g) {
+			if (this.size == this.options.length) {
+				final int capacity = this.size * 2;
+				this.options = Arrays.copyOf(this.options, capacity);
+				this.longinds = Arrays.copyOf(this.longinds, capacity);
+				this.optopts = Arrays.copyOf(this.optopts, capacity);
+				this.argvIndexes = Arrays.copyOf(this.argvIndexes, capacity);
+				this.optargs = Arrays.copyOf(this.optargs, capacity);
+				this.errors = Arrays.copyOf(this.errors, capacity);
+				if (this.values != null) { this.values = Arrays.copyOf(this.values, capacity); }
+				if (this.objects != null) { this.objects = Arrays.copyOf(this.objects, capacity); }
+			}
+			this.options[this.size] = option;
+			this.longinds[this.size] = g.resolvedLongind();
+			this.optopts[this.size] = g.getOptopt();
+			this.argvIndexes[this.size] = g.optionElement();
+			this.optargs[this.size] = g.getOptarg();
+			final ValueType type = this.error ? null : g.getSchema().getValueType(option);
+			if (type != null) { convert(type, g); }
+			this.errors[this.size] = this.error;
+			this.size++;
+			this.error = false;
+			if (g.returnedNonoption()) { this.nonoptions.add(g.getOptarg()); }
+		}
+
+		/**
+		 * Convert the argument of the occurrence being added, or report
+		 * it as an INVALID_VALUE error.
+		 */
+		private void convert(final ValueType type, final Getopt g) {
+			final String optarg = this.optargs[this.size];
+			try {
+				if (type.kind() == ValueType.PATH_KIND) {
+					if (this.objects == null) { this.objects = new Object[this.options.length]; }
+					this.objects[this.size] = type.toObject(optarg);
+				} else {
+					if (this.values == null) { this.values = new long[this.options.length]; }
+					this.values[this.size] = type.toBits(optarg);
+				}
+			} catch (final IllegalArgumentException e) {
+				// Comes back to report()
+				g.reportInvalidValue();
+			}
+		}
+
+		/**
+		 * Drop everything recorded after the first occurrences occurrences,
+		 * diagnostics diagnostics and nonoptions non-options.  The dropped
+		 * arguments and values are cleared so that a reused recorder does
+		 * not keep them reachable.
+		 */
+		void truncate(final int occurrences, final int diagnostics, final int nonoptions) {
+			Arrays.fill(this.optargs, occurrences, this.size, null);
+			if (this.objects != null) { Arrays.fill(this.objects, occurrences, this.size, null); }
+			this.size = occurrences;
+			this.diagnostics.subList(diagnostics, this.diagnostics.size()).clear();
+			this.nonoptions.subList(nonoptions, this.nonoptions.size()).clear();
+			this.error = false;
+		}
+
+		ParsedArgs build(final Getopt g) {
+			final String[] argv = g.argumentVector();
+			final int optind = g.getOptind();
+			final String[] operands = new String[this.nonoptions.size() + argv.length - optind];
+			for (int i = 0; i < this.nonoptions.size(); i++) { operands[i] = this.nonoptions.get(i); }
+			System.arraycopy(argv, optind, operands, this.nonoptions.size(), argv.length - optind);
+			return new ParsedArgs(g.getSchema(), this, operands);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package gnu.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of CommandTree.parse(): the path of command names that was
+ * selected and the options found at every level of it.
+ * <p>
+ * Level 0 holds the options of the root tree, the global options.  Level
+ * i holds the options of the i-th command of the path, so the last level
+ * belongs to the command that was selected and its operands are the
+ * operands of the whole command line.  The argv indexes of each level's
+ * ParsedArgs count from the first argument after the command name, at
+ * getArgvOffset(level) in the original argv; the indexes of the
+ * Diagnostics returned by getDiagnostics() are already relative to the
+ * original argv.
+ * <p>
+ * ParsedCommand objects are immutable.
+ */
+public final class ParsedCommand {
+
+	private final List<String> path;
+	private final List<ParsedArgs> levels;
+	private final int[] offsets;
+	private final List<Diagnostic> diagnostics;
+
+	ParsedCommand(final List<String> path, final List<ParsedArgs> levels, final List<Integer> offsets, final List<Diagnostic> diagnostics) {
+		this.path = Collections.unmodifiableList(new ArrayList<>(path));
+		this.levels = Collections.unmodifiableList(new ArrayList<>(levels));
+		this.offsets = new int[offsets.size()];
+		for (int i = 0; i < this.offsets.length; i++) { this.offsets[i] = offsets.get(i); }
+		this.diagnostics = diagnostics.isEmpty() ? Collections.<Diagnostic>emptyList()
+				: Collections.unmodifiableList(new ArrayList<>(diagnostics));
+	}
+
+	/**
+	 * Returns the names of the selected commands, outermost first.  The
+	 * list is empty if no command was given.
+	 */
+	public List<String> getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Returns the name of the selected command, or null if no command was
+	 * given.
+	 */
+	public String getName() {
+		return this.path.isEmpty() ? null : this.path.get(this.path.size() - 1);
+	}
+
+	/**
+	 * Returns the global options, those before the first command name.
+	 */
+	public ParsedArgs getGlobals() {
+		return this.levels.get(0);
+	}
+
+	/**
+	 * Returns the options of the selected command, or the global options
+	 * if no command was given.
+	 */
+	public ParsedArgs getArgs() {
+		return this.levels.get(this.levels.size() - 1);
+	}
+
+	/**
+	 * Returns the options of a level, see the class comment.
+	 */
+	public ParsedArgs getArgs(final int level) {
+		return this.levels.get(level);
+	}
+
+	/**
+	 * Returns the number of levels, one more than the length of the path.
+	 */
+	public int getLevelCount() {
+		return this.levels.size();
+	}
+
+	/**
+	 * Returns the index in argv of the first argument parsed at a level.
+	 */
+	public int getArgvOffset(final int level) {
+		return this.offsets[level];
+	}
+
+	/**
+	 * Returns the operands of the selected command.  If the parse stopped
+	 * at an unknown command name, this starts with that name.
+	 */
+	public String[] getOperands() {
+		return getArgs().getOperands();
+	}
+
+	/**
+	 * Returns the errors of every level, including unknown command names.
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return this.diagnostics;
+	}
+
+	public boolean hasErrors() {
+		return !this.diagnostics.isEmpty();
+	}
+}
@@ -0,0 +1,144 @@
+package gnu.getopt;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Expansion of GNU style response files.  An argument of the form
+ * "@file" is replaced by the arguments read from that file, which may in
+ * turn contain further "@file" arguments.  If the file does not exist or
+ * cannot be read, the argument is left as it is, as GNU tools do.  Inside
+ * a response file, arguments are separated by whitespace, may be quoted
+ * with single or double quotes and may contain characters escaped with a
+ * backslash.
+ * <p>
+ * Response files are memory-mapped and decoded as their arguments are
+ * requested, so even very large files are never read into the heap as a
+ * whole.  The expanded arguments are best parsed without collecting them
+ * into an array:
+ * <pre>
+ * StreamingGetopt g = schema.streamingParser(
+ *         ResponseFiles.expand(Arrays.asList(argv).iterator()), operands::add);
+ * </pre>
+ */
+public final class ResponseFiles {
+
+	/**
+	 * How deeply response files may include each other, which also stops
+	 * a file that includes itself
+	 */
+	private static final int MAX_DEPTH = 64;
+
+	private ResponseFiles() {
+	}
+
+	/**
+	 * Expand the response files among args, decoding them with the
+	 * platform's default charset.
+	 *
+	 * @param args The arguments as passed to the program
+	 *
+	 * @return The arguments with every readable "@file" replaced by its contents
+	 */
+	public static Iterator<String> expand(final Iterator<String> args) {
+		return expand(args, Charset.defaultCharset());
+	}
+
+	/**
+	 * Expand the response files among args.  The files are opened as the
+	 * returned iterator reaches them; an I/O error while reading one is
+	 * thrown as an UncheckedIOException.
+	 *
+	 * @param args The arguments as passed to the program
+	 * @param charset The charset of the response files
+	 *
+	 * @return The arguments with every readable "@file" replaced by its contents
+	 */
+	public static Iterator<String> expand(final Iterator<String> args, final Charset charset) {
+		return new Expansion(args, charset);
+	}
+
+	/**
+	 * Read the arguments of one response file without expanding any
+	 * "@file" arguments it contains.
+	 *
+	 * @param file The response file
+	 * @param charset The charset of the file
+	 *
+	 * @return The arguments in the file, read as they are requested
+	 *
+	 * @throws IOException If the file cannot be opened
+	 */
+	public static Iterator<String> tokenize(final Path file, final Charset charset) throws IOException {
+		return new ArgumentTokenizer(new MappedFileSource(file, charset));
+	}
+
+	private static final class Expansion implements Iterator<String> {
+
+		private final Deque<Iterator<String>> sources = new ArrayDeque<>();
+		private final Charset charset;
+		private String next;
+
+		Expansion(final Iterator<String> args, final Charset charset) {
+			this.sources.push(args);
+			this.charset = charset;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null && !this.sources.isEmpty()) {
+				final Iterator<String> source = this.sources.peek();
+				if (!source.hasNext()) {
+					this.sources.pop();
+					continue;
+				}
+				final String arg = source.next();
+				final Path file = responseFile(arg);
+				if (file == null) {
+					this.next = arg;
+				} else if (this.sources.size() > ResponseFiles.MAX_DEPTH) {
+					throw new IllegalArgumentException(Messages.get(Locale.getDefault()).format("getopt.responseFileDepth", arg));
+				} else {
+					try {
+						this.sources.push(tokenize(file, this.charset));
+					} catch (final IOException e) {
+						// Leave the argument alone, like an unreadable file
+						this.next = arg;
+					}
+				}
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) { throw new NoSuchElementException(); }
+			final String result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		/**
+		 * Returns the file arg refers to, or null if arg is not "@file"
+		 * or the file cannot be read.
+		 */
+		private static Path responseFile(final String arg) {
+			if (arg.length() < 2 || arg.charAt(0) != '@') { return null; }
+			try {
+				final Path file = Paths.get(arg.substring(1));
+				return Files.isRegularFile(file) && Files.isReadable(file) ? file : null;
+			} catch (final InvalidPathException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package gnu.getopt;
+
+import java.util.Arrays;
+
+/**
+ * A precomputed description of every character of a short option string.
+ * Instead of searching the option string with indexOf() and inspecting
+ * the characters that follow with substring(), getopt() reads a single
+ * int descriptor that holds the canonical option character (the one
+ * spelled in the option string, which matters when case is ignored) and
+ * whether the option takes no argument, a required argument, an optional
+ * argument or introduces a POSIX "-W foo" long option.
+ * <p>
+ * Characters below 128 are kept in a plain array, all others in a sorted
+ * array that is binary searched.  Neither lookup allocates.
+ */
+final class ShortOptionTable {
+
+	/**
+	 * Descriptor returned for characters that do not appear in the option string
+	 */
+	static final int ABSENT = 0;
+
+	static final int NO_ARGUMENT = 1;
+	static final int REQUIRED_ARGUMENT = 2;
+	static final int OPTIONAL_ARGUMENT = 3;
+	/**
+	 * The character is followed by ';' ("W;"), the next argument is a long option
+	 */
+	static final int LONG_OPTION = 4;
+
+	private static final int ASCII = 128;
+
+	private final boolean ignoreCase;
+	private final int[] ascii = new int[ShortOptionTable.ASCII];
+	private final char[] otherKeys;
+	private final int[] otherDescriptors;
+
+	ShortOptionTable(final String optstring, final boolean ignoreCase) {
+		this.ignoreCase = ignoreCase;
+		final char[] keys = new char[optstring.length()];
+		final int[] descriptors = new int[optstring.length()];
+		int others = 0;
+		for (int i = 0; i < optstring.length(); i++) {
+			final char key = key(optstring.charAt(i));
+			// As with indexOf(), the first occurrence of a character decides
+			if (key < ShortOptionTable.ASCII) {
+				if (this.ascii[key] == ShortOptionTable.ABSENT) { this.ascii[key] = describe(optstring, i); }
+			} else if (find(keys, others, key) < 0) {
+				keys[others] = key;
+				descriptors[others++] = describe(optstring, i);
+			}
+		}
+		// Sort the non-ASCII entries by key so that they can be binary searched
+		final long[] entries = new long[others];
+		for (int i = 0; i < others; i++) { entries[i] = (long)keys[i] << 32 | descriptors[i] & 0xFFFFFFFFL; }
+		Arrays.sort(entries);
+		this.otherKeys = new char[others];
+		this.otherDescriptors = new int[others];
+		for (int i = 0; i < others; i++) {
+			this.otherKeys[i] = (char)(entries[i] >>> 32);
+			this.otherDescriptors[i] = (int)entries[i];
+		}
+	}
+
+	/**
+	 * Returns the descriptor for option character c, or ABSENT.
+	 */
+	int lookup(final int c) {
+		final char key = key((char)c);
+		if (key < ShortOptionTable.ASCII) { return this.ascii[key]; }
+		final int pos = Arrays.binarySearch(this.otherKeys, key);
+		return pos < 0 ? ShortOptionTable.ABSENT : this.otherDescriptors[pos];
+	}
+
+	/**
+	 * Returns the option character as spelled in the option string.
+	 */
+	static int canonical(final int descriptor) {
+		return descriptor >>> 8;
+	}
+
+	/**
+	 * Returns one of NO_ARGUMENT, REQUIRED_ARGUMENT, OPTIONAL_ARGUMENT or LONG_OPTION.
+	 */
+	static int kind(final int descriptor) {
+		return descriptor & 0xFF;
+	}
+
+	private char key(final char c) {
+		return this.ignoreCase ? CaseFolding.fold(c) : c;
+	}
+
+	private static int describe(final String optstring, final int i) {
+		final int kind;
+		if (optstring.charAt(i) == 'W' && i + 1 < optstring.length() && optstring.charAt(i + 1) == ';') {
+			kind = ShortOptionTable.LONG_OPTION;
+		} else if (i + 1 < optstring.length() && optstring.charAt(i + 1) == ':') {
+			kind = i + 2 < optstring.length() && optstring.charAt(i + 2) == ':'
+					? ShortOptionTable.OPTIONAL_ARGUMENT : ShortOptionTable.REQUIRED_ARGUMENT;
+		} else {
+			kind = ShortOptionTable.NO_ARGUMENT;
+		}
+		return optstring.charAt(i) << 8 | kind;
+	}
+
+	private static int find(final char[] keys, final int count, final char key) {
+		for (int i = 0; i < count; i++) {
+			if (keys[i] == key) { return i; }
+		}
+		return -1;
+	}
+}
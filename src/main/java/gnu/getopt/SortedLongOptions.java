@@ -0,0 +1,108 @@
+package gnu.getopt;
+
+import java.util.function.IntConsumer;
+
+/**
+ * The part of long option lookup that LongOptionIndex and
+ * LongOptionDictionary share: abbreviations.  The option indexes are
+ * kept sorted by name so that all names starting with a given prefix
+ * form a contiguous range which is found with a binary search.
+ * Subclasses store the names and find exact matches their own way.
+ * <p>
+ * The semantics are those of the original linear scan of
+ * checkLongOption(): an exact match always wins (the first one in array
+ * order if a name is given more than once), otherwise a prefix of exactly
+ * one name selects that option and a prefix of more than one name is
+ * ambiguous.
+ */
+abstract class SortedLongOptions {
+
+	/**
+	 * Returned by lookup() if no long option matches the name.
+	 */
+	static final int NOT_FOUND = -1;
+	/**
+	 * Returned by lookup() if the name is a prefix of more than one long
+	 * option and matches none of them exactly.
+	 */
+	static final int AMBIGUOUS = -2;
+
+	/**
+	 * Returns the long option indexes, ordered by name and, for equal
+	 * names, by index.
+	 */
+	abstract int[] sorted();
+
+	/**
+	 * Returns the index of the first long option whose name is exactly
+	 * the characters between start and end of s, or NOT_FOUND.
+	 */
+	abstract int findExact(String s, int start, int end);
+
+	/**
+	 * Compare the name of a long option with the key, looking only at as
+	 * many characters of the name as the key has.  Returns zero if the name
+	 * starts with the key.
+	 */
+	abstract int comparePrefix(int index, String s, int start, int end);
+
+	/**
+	 * Look up the long option denoted by the characters between start and
+	 * end of s.
+	 *
+	 * @return The index into the long option array, NOT_FOUND or AMBIGUOUS
+	 */
+	int lookup(final String s, final int start, final int end) {
+		final int exact = findExact(s, start, end);
+		if (exact != SortedLongOptions.NOT_FOUND) { return exact; }
+		final int[] sorted = sorted();
+		final int first = lowerBound(sorted, s, start, end);
+		if (first == sorted.length || comparePrefix(sorted[first], s, start, end) != 0) {
+			return SortedLongOptions.NOT_FOUND;
+		}
+		// A second name with the same prefix makes the abbreviation ambiguous
+		if (first + 1 < sorted.length && comparePrefix(sorted[first + 1], s, start, end) == 0) {
+			return SortedLongOptions.AMBIGUOUS;
+		}
+		return sorted[first];
+	}
+
+	/**
+	 * Returns the lowest long option index whose name starts with the
+	 * characters between start and end of s, or NOT_FOUND.  This is the
+	 * option an ambiguous abbreviation is reported against.
+	 */
+	int firstAbbreviated(final String s, final int start, final int end) {
+		final int[] sorted = sorted();
+		int result = SortedLongOptions.NOT_FOUND;
+		for (int i = lowerBound(sorted, s, start, end); i < sorted.length && comparePrefix(sorted[i], s, start, end) == 0; i++) {
+			if (result == SortedLongOptions.NOT_FOUND || sorted[i] < result) { result = sorted[i]; }
+		}
+		return result;
+	}
+
+	/**
+	 * Pass the index of every long option whose name starts with the
+	 * characters between start and end of s to action, in order of name.
+	 */
+	void forEachPrefixed(final String s, final int start, final int end, final IntConsumer action) {
+		final int[] sorted = sorted();
+		for (int i = lowerBound(sorted, s, start, end); i < sorted.length && comparePrefix(sorted[i], s, start, end) == 0; i++) {
+			action.accept(sorted[i]);
+		}
+	}
+
+	/**
+	 * Returns the first position in sorted whose name starts with the key
+	 * or sorts after it.
+	 */
+	private int lowerBound(final int[] sorted, final String s, final int start, final int end) {
+		int lo = 0;
+		int hi = sorted.length;
+		while (lo < hi) {
+			final int mid = lo + hi >>> 1;
+			if (comparePrefix(sorted[mid], s, start, end) < 0) { lo = mid + 1; } else { hi = mid; }
+		}
+		return lo;
+	}
+}
@@ -0,0 +1,207 @@
+package gnu.getopt;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * A getopt() parser that reads its arguments from an Iterator instead of
+ * a String array, so that argument lists with millions of elements (from
+ * xargs-style fan-in or expanded argument files) never have to be held in
+ * memory.  It is created by OptionSchema.streamingParser() and returns the
+ * same values from getopt() as a Getopt object over the same arguments
+ * would.
+ * <p>
+ * Since there is no array to permute, the non-option arguments that Getopt
+ * would leave in argv[optind..] are passed to the operand Consumer
+ * instead:
+ * <ul>
+ * <li>In PERMUTE mode each one as soon as it is read, before getopt()
+ * returns the next option.</li>
+ * <li>In REQUIRE_ORDER mode the first non-option and everything after it,
+ * by the call to getopt() that returns -1.</li>
+ * <li>In RETURN_IN_ORDER mode, non-options are returned by getopt() as
+ * 1 with the element as optarg, as usual, and only the arguments
+ * following a `--' are passed to the Consumer.</li>
+ * </ul>
+ * In every mode, the arguments following `--' go to the Consumer.  At most
+ * three arguments (an option and the ones it may take as argument) are
+ * buffered at any time.
+ * <p>
+ * The argv indices of diagnostics are positions in the argument stream.
+ */
+public final class StreamingGetopt {
+
+	private final OptionSchema schema;
+	private final Iterator<String> args;
+	private final Consumer<String> operands;
+	/**
+	 * Parses one option element at a time, with the elements that may
+	 * follow it as its argument
+	 */
+	private final Getopt inner;
+	/**
+	 * Argument vectors of length 1, 2 and 3 for inner
+	 */
+	private final String[][] windows = {new String[1], new String[2], new String[3]};
+	/**
+	 * Arguments read from args but not yet consumed
+	 */
+	private final String[] lookahead = new String[3];
+	private int lookaheadCount;
+	/**
+	 * The position in the argument stream of lookahead[0]
+	 */
+	private int position;
+	/**
+	 * The position in the argument stream of the element inner is parsing
+	 */
+	private int windowStart;
+	private DiagnosticSink diagnosticSink = DiagnosticSink.STANDARD_ERROR;
+	private String operand;
+	private boolean ended;
+	/**
+	 * Set when the remaining arguments are all operands
+	 */
+	private boolean separated;
+
+	StreamingGetopt(final OptionSchema schema, final Iterator<String> args, final Consumer<String> operands) {
+		this.schema = schema;
+		this.args = args;
+		this.operands = operands;
+		// The inner parser only ever sees one option element and must never permute
+		this.inner = new Getopt(schema.withOrdering(OptionSchema.REQUIRE_ORDER), this.windows[0]);
+		this.inner.setDiagnosticSink(diagnostic ->
+				this.diagnosticSink.report(diagnostic.atArgvIndex(this.windowStart + diagnostic.getArgvIndex())));
+	}
+
+	/**
+	 * Returns the next option, exactly like Getopt.getopt().  When there
+	 * are no more options, all remaining non-options have been passed to
+	 * the operand Consumer and -1 is returned.
+	 *
+	 * @return The option character, or the val of a long option, 0 for a
+	 * long option with a flag, 1 for a non-option in RETURN_IN_ORDER mode,
+	 * '?' or ':' for an error, or -1 at the end
+	 */
+	public int getopt() {
+		this.operand = null;
+		// Continue a cluster of short options
+		if (!this.inner.nextcharEmpty()) { return next(); }
+		while (!this.ended && !this.separated && fill(1)) {
+			final String arg = this.lookahead[0];
+			if (arg.equals(this.schema.getNonOptionSeparator())) {
+				take();
+				break;
+			}
+			if (this.schema.isNonoption(arg)) {
+				if (this.schema.ordering() == OptionSchema.REQUIRE_ORDER) { break; }
+				take();
+				if (this.schema.ordering() == OptionSchema.RETURN_IN_ORDER) {
+					this.operand = arg;
+					return 1;
+				}
+				this.operands.accept(arg);
+				continue;
+			}
+			fill(3);
+			final String[] window = this.windows[this.lookaheadCount - 1];
+			System.arraycopy(this.lookahead, 0, window, 0, this.lookaheadCount);
+			this.inner.setArgumentVector(window);
+			this.inner.setOptind(0);
+			this.windowStart = this.position;
+			return next();
+		}
+		// Everything that is left is an operand
+		while (!this.ended && fill(1)) { this.operands.accept(take()); }
+		this.ended = true;
+		this.inner.completeParse(this.position);
+		return -1;
+	}
+
+	/**
+	 * Returns the argument of the option last returned, or the non-option
+	 * returned as 1 in RETURN_IN_ORDER mode, as Getopt.getOptarg() does.
+	 */
+	public String getOptarg() {
+		return this.operand != null ? this.operand : this.inner.getOptarg();
+	}
+
+	public int getOptopt() {
+		return this.inner.getOptopt();
+	}
+
+	public int getLongind() {
+		return this.inner.getLongind();
+	}
+
+	/**
+	 * Returns the number of arguments consumed from the stream so far.
+	 */
+	public int getPosition() {
+		return this.position;
+	}
+
+	public OptionSchema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * @see Getopt#setOpterr(boolean)
+	 */
+	public void setOpterr(final boolean opterr) {
+		this.inner.setOpterr(opterr);
+	}
+
+	/**
+	 * @see Getopt#setDiagnosticSink(DiagnosticSink)
+	 */
+	public void setDiagnosticSink(final DiagnosticSink diagnosticSink) {
+		this.diagnosticSink = diagnosticSink;
+	}
+
+	/**
+	 * @see Getopt#setParseListener(ParseListener)
+	 */
+	public void setParseListener(final ParseListener parseListener) {
+		this.inner.setParseListener(parseListener);
+	}
+
+	/**
+	 * @see Getopt#setStoreFlags(boolean)
+	 */
+	public void setStoreFlags(final boolean storeFlags) {
+		this.inner.setStoreFlags(storeFlags);
+	}
+
+	/**
+	 * Call the inner parser and, once it is done with the option element,
+	 * drop the elements it consumed.
+	 */
+	private int next() {
+		final int c = this.inner.getopt();
+		if (this.inner.nextcharEmpty()) {
+			for (int i = this.inner.getOptind(); i > 0; i--) { take(); }
+			// "-o -- arg" in POSIX mode: everything after arg is an operand
+			if (this.inner.endparse()) { this.separated = true; }
+		}
+		return c;
+	}
+
+	/**
+	 * Read ahead until count arguments are buffered or args is exhausted.
+	 *
+	 * @return true if at least count arguments are buffered
+	 */
+	private boolean fill(final int count) {
+		while (this.lookaheadCount < count && this.args.hasNext()) { this.lookahead[this.lookaheadCount++] = this.args.next(); }
+		return this.lookaheadCount >= count;
+	}
+
+	private String take() {
+		final String arg = this.lookahead[0];
+		System.arraycopy(this.lookahead, 1, this.lookahead, 0, --this.lookaheadCount);
+		this.lookahead[this.lookaheadCount] = null;
+		this.position++;
+		return arg;
+	}
+}
@@ -0,0 +1,231 @@
+package gnu.getopt;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The type of the argument of an option, declared with
+ * OptionSchema.withValueType().  OptionSchema.parse() converts the
+ * argument of every occurrence of a typed option once, while parsing, and
+ * keeps the result in a primitive array of the ParsedArgs, from where it
+ * is read with getInt(), getLong(), getDouble(), getBoolean(),
+ * getEnum(), getDuration() and getPath().  An argument that cannot be
+ * converted is reported as a Diagnostic of kind INVALID_VALUE.
+ * <p>
+ * The accepted forms are:
+ * <ul>
+ * <li>INT, LONG: a decimal number, as for Integer.parseInt().</li>
+ * <li>DOUBLE: anything Double.parseDouble() accepts.</li>
+ * <li>BOOLEAN: true, yes, on or 1 and false, no, off or 0, in any case.
+ * An occurrence without an argument counts as true.</li>
+ * <li>Enumerations: the name of a constant in any case, with '-' in
+ * place of '_' if desired.</li>
+ * <li>DURATION: a number followed by one of the units ns, us, ms, s, m,
+ * min, h or d, seconds if there is no unit, or an ISO-8601 duration such
+ * as PT1M30S.  Stored as nanoseconds.</li>
+ * <li>SIZE: a number of bytes, optionally followed by K, M, G, T, P or E
+ * for powers of 1024 (also written KiB, MiB, ...) or KB, MB, ... for
+ * powers of 1000, and an optional B for bytes.</li>
+ * <li>PATH: anything Paths.get() accepts.</li>
+ * </ul>
+ */
+public final class ValueType {
+
+	static final int INT_KIND = 0;
+	static final int LONG_KIND = 1;
+	static final int DOUBLE_KIND = 2;
+	static final int BOOLEAN_KIND = 3;
+	static final int ENUM_KIND = 4;
+	static final int DURATION_KIND = 5;
+	static final int SIZE_KIND = 6;
+	static final int PATH_KIND = 7;
+
+	public static final ValueType INT = new ValueType(ValueType.INT_KIND, "INT", null);
+	public static final ValueType LONG = new ValueType(ValueType.LONG_KIND, "LONG", null);
+	public static final ValueType DOUBLE = new ValueType(ValueType.DOUBLE_KIND, "DOUBLE", null);
+	public static final ValueType BOOLEAN = new ValueType(ValueType.BOOLEAN_KIND, "BOOLEAN", null);
+	public static final ValueType DURATION = new ValueType(ValueType.DURATION_KIND, "DURATION", null);
+	public static final ValueType SIZE = new ValueType(ValueType.SIZE_KIND, "SIZE", null);
+	public static final ValueType PATH = new ValueType(ValueType.PATH_KIND, "PATH", null);
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	private final int kind;
+	private final String name;
+	private final Enum<?>[] constants;
+
+	private ValueType(final int kind, final String name, final Enum<?>[] constants) {
+		this.kind = kind;
+		this.name = name;
+		this.constants = constants;
+	}
+
+	/**
+	 * Returns the type of an argument that names a constant of the given
+	 * enumeration.
+	 *
+	 * @param type The enumeration class
+	 *
+	 * @return A ValueType whose values are read with ParsedArgs.getEnum()
+	 */
+	public static <E extends Enum<E>> ValueType enumeration(final Class<E> type) {
+		return new ValueType(ValueType.ENUM_KIND, type.getName(), type.getEnumConstants());
+	}
+
+	int kind() {
+		return this.kind;
+	}
+
+	Enum<?>[] constants() {
+		return this.constants;
+	}
+
+	/**
+	 * Convert an argument to the primitive representation stored by
+	 * ParsedArgs: the value of an integral type, the raw bits of a double,
+	 * 0 or 1 for a boolean, the ordinal of an enumeration constant,
+	 * nanoseconds for a duration, bytes for a size.  PATH arguments are
+	 * converted by toObject() instead.
+	 *
+	 * @param s The argument, or null if the option had none
+	 *
+	 * @throws IllegalArgumentException If the argument is not valid for this type
+	 */
+	long toBits(final String s) {
+		if (s == null) { return this.kind == ValueType.BOOLEAN_KIND ? 1 : 0; }
+		switch (this.kind) {
+			case INT_KIND:
+				return ArgumentView.parseInt(s, 0, s.length());
+			case LONG_KIND:
+				return ArgumentView.parseLong(s, 0, s.length());
+			case DOUBLE_KIND:
+				return Double.doubleToRawLongBits(ArgumentView.parseDouble(s, 0, s.length()));
+			case BOOLEAN_KIND:
+				return parseBoolean(s) ? 1 : 0;
+			case ENUM_KIND:
+				return parseEnum(s);
+			case DURATION_KIND:
+				return parseDuration(s);
+			case SIZE_KIND:
+				return parseSize(s);
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Convert an argument of a type that has no primitive representation.
+	 *
+	 * @throws IllegalArgumentException If the argument is not valid for this type
+	 */
+	Object toObject(final String s) {
+		if (s == null || this.kind != ValueType.PATH_KIND) { return null; }
+		try {
+			return Paths.get(s);
+		} catch (final InvalidPathException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+	private static boolean parseBoolean(final String s) {
+		if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("yes") || s.equalsIgnoreCase("on") || s.equals("1")) { return true; }
+		if (s.equalsIgnoreCase("false") || s.equalsIgnoreCase("no") || s.equalsIgnoreCase("off") || s.equals("0")) { return false; }
+		throw new IllegalArgumentException(s);
+	}
+
+	private int parseEnum(final String s) {
+		for (final Enum<?> constant : this.constants) {
+			if (matches(constant.name(), s)) { return constant.ordinal(); }
+		}
+		throw new IllegalArgumentException(s);
+	}
+
+	private static boolean matches(final String name, final String s) {
+		if (name.length() != s.length()) { return false; }
+		for (int i = 0; i < name.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '-' ? name.charAt(i) != '_' : Character.toUpperCase(c) != Character.toUpperCase(name.charAt(i))) { return false; }
+		}
+		return true;
+	}
+
+	private static long parseDuration(final String s) {
+		if (s.length() > 0 && (s.charAt(0) == 'P' || s.charAt(0) == 'p' || s.charAt(0) == '-' && s.length() > 1 && (s.charAt(1) == 'P' || s.charAt(1) == 'p'))) {
+			try {
+				return Duration.parse(s).toNanos();
+			} catch (final DateTimeParseException | ArithmeticException e) {
+				throw new IllegalArgumentException(s, e);
+			}
+		}
+		final int unitStart = unitStart(s);
+		final String unit = s.substring(unitStart);
+		final long nanos;
+		switch (unit) {
+			case "ns": nanos = 1L; break;
+			case "us": case "\u00b5s": nanos = 1000L; break;
+			case "ms": nanos = 1000000L; break;
+			case "": case "s": nanos = ValueType.NANOS_PER_SECOND; break;
+			case "m": case "min": nanos = 60 * ValueType.NANOS_PER_SECOND; break;
+			case "h": nanos = 3600 * ValueType.NANOS_PER_SECOND; break;
+			case "d": nanos = 86400 * ValueType.NANOS_PER_SECOND; break;
+			default: throw new IllegalArgumentException(s);
+		}
+		return scale(s, unitStart, nanos);
+	}
+
+	private static long parseSize(final String s) {
+		final int unitStart = unitStart(s);
+		int i = unitStart;
+		long unit = 1;
+		if (i < s.length()) {
+			final int power = "KMGTPE".indexOf(Character.toUpperCase(s.charAt(i)));
+			if (power >= 0) {
+				i++;
+				long base = 1024;
+				if (s.regionMatches(true, i, "iB", 0, 2)) {
+					i += 2;
+				} else if (i < s.length() && (s.charAt(i) == 'B' || s.charAt(i) == 'b')) {
+					base = 1000;
+					i++;
+				}
+				for (int p = 0; p <= power; p++) { unit *= base; }
+			} else if (s.charAt(i) == 'B' || s.charAt(i) == 'b') {
+				i++;
+			}
+		}
+		if (i != s.length()) { throw new IllegalArgumentException(s); }
+		return scale(s, unitStart, unit);
+	}
+
+	/**
+	 * Returns the index of the first character after the number at the
+	 * start of s.
+	 */
+	private static int unitStart(final String s) {
+		int i = 0;
+		while (i < s.length() && (Character.isDigit(s.charAt(i)) || s.charAt(i) == '.' || s.charAt(i) == '-' || s.charAt(i) == '+')) { i++; }
+		return i;
+	}
+
+	/**
+	 * Multiply the number in s[0..end) by unit, exactly for integers and
+	 * rounded for decimals.
+	 */
+	private static long scale(final String s, final int end, final long unit) {
+		try {
+			if (s.lastIndexOf('.', end - 1) < 0) { return Math.multiplyExact(ArgumentView.parseLong(s, 0, end), unit); }
+			final double value = ArgumentView.parseDouble(s, 0, end) * unit;
+			if (Double.isNaN(value) || Math.abs(value) >= 0x1p63) { throw new IllegalArgumentException(s); }
+			return Math.round(value);
+		} catch (final ArithmeticException e) {
+			throw new IllegalArgumentException(s, e);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ArgumentViewTest {
+
+	@Test
+	public void testParseLong() {
+		for (final String s : new String[] {"0", "-0", "+7", "42", "-9223372036854775808", "9223372036854775807"}) {
+			assertEquals(Long.parseLong(s), ArgumentView.parseLong("x=" + s, 2, s.length() + 2));
+		}
+		for (final String s : new String[] {"", "-", "+", "1a", "9223372036854775808", "-9223372036854775809", " 1"}) {
+			try {
+				ArgumentView.parseLong(s, 0, s.length());
+				fail(s);
+			} catch (final NumberFormatException e) {
+				// expected
+			}
+		}
+		assertEquals(Integer.MIN_VALUE, ArgumentView.parseInt("-2147483648", 0, 11));
+	}
+
+	@Test
+	public void testParseDouble() {
+		final String[] fixed = {"0", "-0", "1.", ".5", "-1.25e3", "1E-5", "0.1", "123456789012345678", "1e23", "1e400",
+				"NaN", "-Infinity", "0x1p3", "2.5d", " 3 "};
+		for (final String s : fixed) { assertParseDouble(s); }
+		final Random random = new Random(1);
+		for (int i = 0; i < 100000; i++) {
+			final String s = random.nextInt(1000000000) + "." + random.nextInt(100000) + (random.nextBoolean() ? "e" + (random.nextInt(40) - 20) : "");
+			assertParseDouble(s);
+		}
+	}
+
+	private static void assertParseDouble(final String s) {
+		assertEquals(s, Double.doubleToLongBits(Double.parseDouble(s)), Double.doubleToLongBits(ArgumentView.parseDouble(s, 0, s.length())));
+	}
+}
@@ -0,0 +1,70 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class BatchParserTest {
+
+	private static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:c::", new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+			new LongOpt("count", LongOpt.REQUIRED_ARGUMENT, null, 'n')).withValueType('n', ValueType.INT);
+
+	private static List<String[]> lines(final int count) {
+		final List<String[]> lines = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			switch (i % 4) {
+			case 0:
+				lines.add(new String[] {"file" + i, "-ab" + i, "--verbose", "--count", Integer.toString(i)});
+				break;
+			case 1:
+				lines.add(new String[] {"-x", "--cou=" + i, "--", "-a"});
+				break;
+			case 2:
+				lines.add(new String[] {"--count", "many", "-c", "file", "-b"});
+				break;
+			default:
+				lines.add(new String[0]);
+				break;
+			}
+		}
+		return lines;
+	}
+
+	private static String describe(final ParsedArgs args) {
+		final StringBuilder description = new StringBuilder();
+		for (int i = 0; i < args.size(); i++) {
+			description.append(args.optionAt(i)).append('=').append(args.optargAt(i)).append(args.isErrorAt(i) ? "! " : " ");
+		}
+		for (final Diagnostic diagnostic : args.getDiagnostics()) { description.append(diagnostic.getMessage()).append(' '); }
+		return description.append(String.join(",", args.getOperands())).toString();
+	}
+
+	@Test
+	public void testParseAll() {
+		final List<String[]> lines = BatchParserTest.lines(5000);
+		final List<ParsedArgs> results = new BatchParser(BatchParserTest.SCHEMA).parseAll(lines);
+		assertEquals(lines.size(), results.size());
+		for (int i = 0; i < lines.size(); i++) {
+			assertEquals(BatchParserTest.describe(BatchParserTest.SCHEMA.parse(lines.get(i))), BatchParserTest.describe(results.get(i)));
+		}
+		assertEquals(4, results.get(4).getInt('n', -1));
+		// The caller's arrays are not permuted
+		assertArrayEquals(new String[] {"file0", "-ab0", "--verbose", "--count", "0"}, lines.get(0));
+	}
+
+	@Test
+	public void testParseStream() {
+		final List<String[]> lines = BatchParserTest.lines(3000);
+		final List<String> expected = new ArrayList<>();
+		for (final String[] line : lines) { expected.add(BatchParserTest.describe(BatchParserTest.SCHEMA.parse(line))); }
+		assertEquals(expected, new BatchParser(BatchParserTest.SCHEMA).parse(lines.stream(), BatchParserTest::describe).collect(Collectors.toList()));
+		// "-x", "--count many" and "-b" without its argument
+		assertEquals(Integer.valueOf(750 * 3), new BatchParser(BatchParserTest.SCHEMA).parse(lines.stream(), args -> args.getDiagnostics().size())
+				.reduce(0, Integer::sum));
+	}
+}
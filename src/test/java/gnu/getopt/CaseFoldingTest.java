@@ -0,0 +1,48 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class CaseFoldingTest {
+
+	@Test
+	public void testFold() {
+		assertEquals('a', CaseFolding.fold('A'));
+		assertEquals('-', CaseFolding.fold('-'));
+		assertEquals('\u00e9', CaseFolding.fold('\u00c9'));
+		// Dotless i, capital dotted I and the long s fold like String.equalsIgnoreCase() sees them
+		assertEquals('i', CaseFolding.fold('\u0131'));
+		assertEquals('i', CaseFolding.fold('\u0130'));
+		assertEquals('s', CaseFolding.fold('\u017f'));
+		assertEquals("output-file", CaseFolding.fold("Output-FILE"));
+		final String folded = "already-folded";
+		assertSame(folded, CaseFolding.fold(folded));
+		assertTrue(CaseFolding.regionMatches("\u00e9t\u00e9", 0, "--\u00c9T\u00c9", 2, 3));
+	}
+
+	@Test
+	public void testIndependentOfDefaultLocale() {
+		final Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			final OptionSchema schema = OptionSchema.createMsPowerShell("testprog", "i",
+					new LongOpt("info", LongOpt.NO_ARGUMENT, null, 1),
+					new LongOpt("\u00e9t\u00e9", LongOpt.NO_ARGUMENT, null, 2));
+			final Getopt g = schema.parser(new String[] {"--INFO", "-I", "--\u00c9T\u00c9", "-\u00c9t"});
+			assertEquals(1, g.getopt());
+			assertEquals('i', g.getopt());
+			assertEquals(2, g.getopt());
+			assertEquals(2, g.getopt());
+			assertEquals(-1, g.getopt());
+			final LongOptionDictionary dict = new LongOptionDictionary(schema.getLongOptions(), true);
+			assertEquals(0, dict.lookup("INFO", 0, 4));
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CommandTreeTest {
+
+	private final AtomicInteger compiled = new AtomicInteger();
+
+	private CommandTree tree() {
+		return CommandTree.create(OptionSchema.createGnu("tool", "vC:", new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v')))
+				.addCommand("build", () -> {
+					this.compiled.incrementAndGet();
+					return OptionSchema.createGnu("tool build", "j:", new LongOpt("jobs", LongOpt.REQUIRED_ARGUMENT, null, 'j'));
+				})
+				.addCommand("clean", () -> {
+					this.compiled.incrementAndGet();
+					return OptionSchema.createGnu("tool clean", "f");
+				})
+				.addCommandGroup("remote", () -> CommandTree.create(OptionSchema.createGnu("tool remote", "v"))
+						.addCommand("add", () -> OptionSchema.createGnu("tool remote add", "t:")));
+	}
+
+	@Test
+	public void testDispatch() {
+		final CommandTree tree = tree();
+		final ParsedCommand command = tree.parse(new String[] {"-v", "-C", "dir", "build", "target", "--jobs=4", "-v"});
+		assertEquals("build", command.getName());
+		assertEquals(Collections.singletonList("build"), command.getPath());
+		assertTrue(command.getGlobals().has('v'));
+		assertEquals("dir", command.getGlobals().getArgument('C'));
+		assertEquals("4", command.getArgs().getArgument("jobs"));
+		assertEquals(4, command.getArgvOffset(1));
+		assertArrayEquals(new String[] {"target"}, command.getOperands());
+		// -v is not an option of build
+		assertEquals(1, command.getDiagnostics().size());
+		assertEquals(6, command.getDiagnostics().get(0).getArgvIndex());
+		// Only the selected command has been compiled
+		assertEquals(1, this.compiled.get());
+		assertTrue(tree.isCompiled("build"));
+		assertFalse(tree.isCompiled("clean"));
+		tree.parse(new String[] {"build"});
+		assertEquals(1, this.compiled.get());
+	}
+
+	@Test
+	public void testNested() {
+		final ParsedCommand command = tree().parse(new String[] {"remote", "-v", "add", "-t", "x", "origin", "url"});
+		assertEquals(Arrays.asList("remote", "add"), command.getPath());
+		assertEquals(3, command.getLevelCount());
+		assertTrue(command.getArgs(1).has('v'));
+		assertEquals("x", command.getArgs().getArgument('t'));
+		assertArrayEquals(new String[] {"origin", "url"}, command.getOperands());
+		assertFalse(command.hasErrors());
+	}
+
+	@Test
+	public void testUnknownOrMissingCommand() {
+		final CommandTree tree = tree();
+		final ParsedCommand unknown = tree.parse(new String[] {"-v", "--", "bulid", "-j"});
+		assertNull(unknown.getName());
+		assertEquals(1, unknown.getDiagnostics().size());
+		final Diagnostic diagnostic = unknown.getDiagnostics().get(0);
+		assertEquals(Diagnostic.Kind.UNKNOWN_COMMAND, diagnostic.getKind());
+		assertEquals(2, diagnostic.getArgvIndex());
+		assertEquals("bulid", diagnostic.getOption());
+		assertArrayEquals(new String[] {"bulid", "-j"}, unknown.getOperands());
+		final ParsedCommand missing = tree.parse(new String[] {"--verbose"});
+		assertNull(missing.getName());
+		assertEquals(1, missing.getLevelCount());
+		assertFalse(missing.hasErrors());
+		assertEquals(0, this.compiled.get());
+		assertEquals(Arrays.asList("build", "clean", "remote"), Arrays.asList(tree.getCommandNames().toArray()));
+	}
+}
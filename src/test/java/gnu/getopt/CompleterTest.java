@@ -0,0 +1,118 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class CompleterTest {
+
+	private static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:c::", new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+			new LongOpt("output", LongOpt.REQUIRED_ARGUMENT, null, 'o'), new LongOpt("outdir", LongOpt.REQUIRED_ARGUMENT, null, 'd'),
+			new LongOpt("color", LongOpt.OPTIONAL_ARGUMENT, null, 'C'));
+
+	private static final Completer COMPLETER = Completer.create(CompleterTest.SCHEMA);
+
+	@Test
+	public void testOptions() {
+		assertEquals(Arrays.asList("-a", "-b", "-c", "--color", "--outdir", "--output", "--verbose"),
+				CompleterTest.COMPLETER.complete(new String[] {"-"}, 0).getCandidates());
+		final Completion completion = CompleterTest.COMPLETER.complete(new String[] {"file", "--ou", "x"}, 1);
+		assertEquals(Completion.Context.OPTION, completion.getContext());
+		assertEquals(Arrays.asList("--outdir", "--output"), completion.getCandidates());
+		assertEquals(Collections.singletonList("-ab"), CompleterTest.COMPLETER.complete(new String[] {"-ab"}, 0).getCandidates());
+		assertTrue(CompleterTest.COMPLETER.complete(new String[] {"-ax"}, 0).getCandidates().isEmpty());
+		assertTrue(CompleterTest.COMPLETER.complete(new String[] {"--x"}, 0).getCandidates().isEmpty());
+	}
+
+	@Test
+	public void testArguments() {
+		Completion completion = CompleterTest.COMPLETER.complete(new String[] {"--output"}, 1);
+		assertEquals(Completion.Context.ARGUMENT, completion.getContext());
+		assertEquals("output", completion.getOption());
+		assertEquals("", completion.getArgument());
+		completion = CompleterTest.COMPLETER.complete(new String[] {"-ab", "fi"}, 1);
+		assertEquals("b", completion.getOption());
+		assertEquals("fi", completion.getArgument());
+		completion = CompleterTest.COMPLETER.complete(new String[] {"--outp=fi"}, 0);
+		assertEquals("output", completion.getOption());
+		assertEquals("fi", completion.getArgument());
+		completion = CompleterTest.COMPLETER.complete(new String[] {"-abfi"}, 0);
+		assertEquals(Completion.Context.ARGUMENT, completion.getContext());
+		assertEquals("fi", completion.getArgument());
+		// Optional arguments and arguments given in the same word do not take the next word
+		assertEquals(Completion.Context.OPTION, CompleterTest.COMPLETER.complete(new String[] {"--color", "--v"}, 1).getContext());
+		assertEquals(Completion.Context.OPERAND, CompleterTest.COMPLETER.complete(new String[] {"-bx", "y"}, 1).getContext());
+		assertEquals(Completion.Context.OPERAND, CompleterTest.COMPLETER.complete(new String[] {"--output", "x", ""}, 2).getContext());
+	}
+
+	@Test
+	public void testLongOptionAfterW() {
+		final Completer completer = Completer.create(OptionSchema.createGnu("testprog", "ab:W;", new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+				new LongOpt("outputdir", LongOpt.REQUIRED_ARGUMENT, null, 'o')));
+		Completion completion = completer.complete(new String[] {"-W", "ou"}, 1);
+		assertEquals(Completion.Context.OPTION, completion.getContext());
+		assertEquals(Collections.singletonList("outputdir"), completion.getCandidates());
+		assertEquals(Arrays.asList("outputdir", "verbose"), completer.complete(new String[] {"-W"}, 1).getCandidates());
+		assertEquals(Collections.singletonList("-aWverbose"), completer.complete(new String[] {"-aWv"}, 0).getCandidates());
+		completion = completer.complete(new String[] {"-W", "outputdir", ""}, 2);
+		assertEquals(Completion.Context.ARGUMENT, completion.getContext());
+		assertEquals("outputdir", completion.getOption());
+		assertEquals("outputdir", completer.complete(new String[] {"-Woutputdir", ""}, 1).getOption());
+		assertEquals("outputdir", completer.complete(new String[] {"-W", "outputdir=x"}, 1).getOption());
+		assertEquals(Completion.Context.OPERAND, completer.complete(new String[] {"-W", "verbose", ""}, 2).getContext());
+		assertEquals(Completion.Context.OPERAND, completer.complete(new String[] {"-W", "outputdir", "x", ""}, 3).getContext());
+	}
+
+	@Test
+	public void testEndOfOptions() {
+		assertEquals(Completion.Context.OPERAND, CompleterTest.COMPLETER.complete(new String[] {"--", "--v"}, 1).getContext());
+		final Completer requireOrder = Completer.create(CompleterTest.SCHEMA.withOrdering(OptionSchema.REQUIRE_ORDER));
+		assertEquals(Completion.Context.OPERAND, requireOrder.complete(new String[] {"file", "--v"}, 1).getContext());
+		assertEquals(Completion.Context.OPTION, CompleterTest.COMPLETER.complete(new String[] {"file", "--v"}, 1).getContext());
+	}
+
+	@Test
+	public void testCommands() {
+		final CommandTree tree = CommandTree.create(OptionSchema.createGnu("tool", "v"))
+				.addCommand("build", () -> OptionSchema.createGnu("tool build", "j:", new LongOpt("jobs", LongOpt.REQUIRED_ARGUMENT, null, 'j')))
+				.addCommand("bench", () -> OptionSchema.createGnu("tool bench", ""))
+				.addCommand("clean", () -> OptionSchema.createGnu("tool clean", ""));
+		final Completer completer = Completer.create(tree);
+		Completion completion = completer.complete(new String[] {"-v", "b"}, 1);
+		assertEquals(Completion.Context.COMMAND, completion.getContext());
+		assertEquals(Arrays.asList("bench", "build"), completion.getCandidates());
+		assertFalse(tree.isCompiled("build"));
+		completion = completer.complete(new String[] {"-v", "build", "--j"}, 2);
+		assertEquals(Collections.singletonList("build"), completion.getCommandPath());
+		assertEquals(Collections.singletonList("--jobs"), completion.getCandidates());
+		assertEquals("jobs", completer.complete(new String[] {"build", "--jobs"}, 2).getOption());
+		assertEquals(Completion.Context.OPERAND, completer.complete(new String[] {"nosuch", "b"}, 1).getContext());
+	}
+
+	@Test
+	public void testLongOnly() {
+		final Completer completer = Completer.create(OptionSchema.createMsPowerShell("testprog", "o",
+				new LongOpt("Output", LongOpt.REQUIRED_ARGUMENT, null, 1), new LongOpt("Force", LongOpt.NO_ARGUMENT, null, 2)));
+		assertEquals(Arrays.asList("-o", "-Output"), completer.complete(new String[] {"-o"}, 0).getCandidates());
+		assertEquals(Collections.singletonList("-Force"), completer.complete(new String[] {"-FO"}, 0).getCandidates());
+		assertEquals("Output", completer.complete(new String[] {"-OUT"}, 1).getOption());
+	}
+
+	@Test
+	public void testCompleteIfRequested() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final PrintStream out = new PrintStream(bytes, true);
+		assertFalse(CompleterTest.COMPLETER.completeIfRequested(new String[] {"--verbose"}, out));
+		assertTrue(CompleterTest.COMPLETER.completeIfRequested(new String[] {Completer.COMPLETE_OPTION, "1", "-a", "--o"}, out));
+		assertEquals("--outdir" + System.lineSeparator() + "--output" + System.lineSeparator(), bytes.toString());
+		assertTrue(CompleterTest.COMPLETER.completeIfRequested(new String[] {Completer.COMPLETE_OPTION, "x"}, out));
+		assertEquals(2, bytes.toString().split(System.lineSeparator()).length);
+	}
+}
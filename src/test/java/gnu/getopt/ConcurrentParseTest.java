@@ -0,0 +1,77 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ConcurrentParseTest {
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 2000;
+
+	@Test
+	public void testSharedSchemaAcrossThreads() throws Exception {
+		final int[] flag = new int[1];
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "ab:c::W;",
+				new LongOpt("verbose", LongOpt.NO_ARGUMENT, flag, 'v'),
+				new LongOpt("outputdir", LongOpt.REQUIRED_ARGUMENT, null, 'o'),
+				new LongOpt("output-format", LongOpt.REQUIRED_ARGUMENT, null, 'f'),
+				new LongOpt("maximum", LongOpt.OPTIONAL_ARGUMENT, null, 2));
+		final String[][] argvs = new String[64][];
+		final ParsedArgs[] expected = new ParsedArgs[argvs.length];
+		for (int i = 0; i < argvs.length; i++) {
+			argvs[i] = new String[] {"file" + i, "-ab" + i, "--verbose", "--outputd", "dir" + i,
+					"--output", "-c" + i, "-W", "max=" + i, "file", "-x", "--", "-a"};
+			expected[i] = schema.parse(argvs[i]);
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(ConcurrentParseTest.THREADS);
+		try {
+			final List<Future<Integer>> futures = new ArrayList<>();
+			for (int t = 0; t < ConcurrentParseTest.THREADS; t++) {
+				final int offset = t;
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int parsed = 0;
+						for (int n = 0; n < ConcurrentParseTest.ITERATIONS; n++) {
+							final int i = (n + offset) % argvs.length;
+							assertSameResult(expected[i], schema.parse(argvs[i]));
+							parsed++;
+						}
+						return parsed;
+					}
+				}));
+			}
+			for (final Future<Integer> future : futures) {
+				assertEquals(ConcurrentParseTest.ITERATIONS, future.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// The shared flag array must never have been written to
+		assertEquals(0, flag[0]);
+	}
+
+	private static void assertSameResult(final ParsedArgs expected, final ParsedArgs actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.optionAt(i), actual.optionAt(i));
+			assertEquals(expected.longindAt(i), actual.longindAt(i));
+			assertEquals(expected.optargAt(i), actual.optargAt(i));
+			assertEquals(expected.argvIndexAt(i), actual.argvIndexAt(i));
+		}
+		assertArrayEquals(expected.getOperands(), actual.getOperands());
+		assertEquals(expected.getDiagnostics().size(), actual.getDiagnostics().size());
+		for (int i = 0; i < expected.getDiagnostics().size(); i++) {
+			assertEquals(expected.getDiagnostics().get(i).getMessage(), actual.getDiagnostics().get(i).getMessage());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class EnvironmentOptionsTest {
+
+	@Test
+	public void testTokenize() {
+		assertArrayEquals(new String[] {"-v", "--dir=/my dir", "a b", "", "c\"d"},
+				EnvironmentOptions.tokenize("  -v --dir=\"/my dir\"\t'a b' '' c\\\"d "));
+		assertEquals(0, EnvironmentOptions.tokenize(" \t").length);
+	}
+
+	@Test
+	public void testPrepend() {
+		final String[] argv = {"-b", "file"};
+		assertSame(argv, EnvironmentOptions.prepend("GETOPT_TEST_VARIABLE_THAT_IS_NOT_SET", argv));
+		assertEquals(0, EnvironmentOptions.get("GETOPT_TEST_VARIABLE_THAT_IS_NOT_SET").length);
+		final String[] combined = EnvironmentOptions.prepend(EnvironmentOptions.tokenize("-a -c 1"), argv);
+		assertArrayEquals(new String[] {"-a", "-c", "1", "-b", "file"}, combined);
+		// Options on the command line come last and so override the defaults
+		final ParsedArgs args = OptionSchema.createGnu("testprog", "abc:").parse(
+				EnvironmentOptions.prepend(EnvironmentOptions.tokenize("-c 1 -a"), new String[] {"-c", "2", "file"}));
+		assertEquals("2", args.getArgument('c'));
+		assertArrayEquals(new String[] {"file"}, args.getOperands());
+	}
+
+	@Test
+	public void testCached() {
+		if (System.getenv("PATH") == null) { return; }
+		assertSame(EnvironmentOptions.cached("PATH"), EnvironmentOptions.cached("PATH"));
+		assertArrayEquals(EnvironmentOptions.tokenize(System.getenv("PATH")), EnvironmentOptions.get("PATH"));
+	}
+}
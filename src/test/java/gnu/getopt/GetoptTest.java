@@ -1,5 +1,13 @@
 package gnu.getopt;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 public class GetoptTest {
@@ -318,4 +326,102 @@ public class GetoptTest {
 		for (int i = g.getOptind(); i < argv.length; i++) { System.out.println("Non option argv element: " + argv[i] + "\n"); }
 
 	}
+
+	@Test
+	public void testClusteredOptions() {
+		final String[] argv = {"-abcd", "-eARG", "-e", "ARG2", "-f", "--long=value"};
+		final Getopt g = Getopt.createGnu("testprog", argv, "abcde:f::", new LongOpt("long", LongOpt.REQUIRED_ARGUMENT, null, 'l'));
+		for (final char expected : "abcd".toCharArray()) {
+			assertEquals(expected, g.getopt());
+			assertNull(g.getOptarg());
+		}
+		assertEquals(1, g.getOptind());
+		assertEquals('e', g.getopt());
+		assertEquals("ARG", g.getOptarg());
+		assertEquals('e', g.getopt());
+		assertSame(argv[3], g.getOptarg());
+		assertEquals('f', g.getopt());
+		assertNull(g.getOptarg());
+		assertEquals('l', g.getopt());
+		assertEquals("value", g.getOptarg());
+		assertEquals(-1, g.getopt());
+		assertEquals(6, g.getOptind());
+	}
+
+	@Test
+	public void testDiagnosticSink() {
+		final String[] argv = {"-x", "--ver", "--help=yes", "--nope", "-o"};
+		final List<Diagnostic> diagnostics = new ArrayList<>();
+		final Getopt g = Getopt.createGnu("testprog", argv, "o:",
+				new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+				new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+				new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'));
+		g.setDiagnosticSink(diagnostics::add);
+		while (g.getopt() != -1) {
+			// Errors are collected by the sink
+		}
+		assertEquals(5, diagnostics.size());
+		assertEquals(Diagnostic.Kind.INVALID, diagnostics.get(0).getKind());
+		assertEquals("x", diagnostics.get(0).getOption());
+		assertEquals(0, diagnostics.get(0).getArgvIndex());
+		assertEquals(Diagnostic.Kind.AMBIGUOUS, diagnostics.get(1).getKind());
+		assertEquals(1, diagnostics.get(1).getArgvIndex());
+		assertEquals(Diagnostic.Kind.ARGUMENT_NOT_ALLOWED, diagnostics.get(2).getKind());
+		assertEquals("help", diagnostics.get(2).getOption());
+		assertEquals('h', diagnostics.get(2).getOptopt());
+		assertEquals(Diagnostic.Kind.UNRECOGNIZED, diagnostics.get(3).getKind());
+		assertEquals("nope", diagnostics.get(3).getOption());
+		assertEquals(Diagnostic.Kind.REQUIRES_ARGUMENT, diagnostics.get(4).getKind());
+		assertEquals(4, diagnostics.get(4).getArgvIndex());
+	}
+
+	@Test
+	public void testDeferredPermutation() {
+		final String[][] argvs = {
+				{"file1", "-a", "file2", "-b", "arg", "file3", "-c"},
+				{"-a", "file1", "-", "--long", "x", "--", "-c", "file2"},
+				{"file1", "file2", "--"},
+				{"--", "file1"},
+				{"-a", "-c"},
+				{"file1", "", "-b"},
+				{}
+		};
+		for (final String[] argv : argvs) {
+			final String[] expected = argv.clone();
+			final String[] actual = argv.clone();
+			final Getopt e = Getopt.createGnu("testprog", expected, "ab:c", new LongOpt("long", LongOpt.REQUIRED_ARGUMENT, null, 'l'));
+			final Getopt a = Getopt.createGnu("testprog", actual, "ab:c", new LongOpt("long", LongOpt.REQUIRED_ARGUMENT, null, 'l'));
+			a.setDeferredPermutation(true);
+			int c;
+			do {
+				c = e.getopt();
+				assertEquals(c, a.getopt());
+				assertEquals(e.getOptarg(), a.getOptarg());
+			} while (c != -1);
+			assertEquals(e.getOptind(), a.getOptind());
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testArgumentViews() {
+		final String[] argv = {"-n42", "--ratio=0.25", "--max", "-9", "-v"};
+		final Getopt g = Getopt.createGnu("testprog", argv, "n:v",
+				new LongOpt("ratio", LongOpt.REQUIRED_ARGUMENT, null, 'r'),
+				new LongOpt("maximum", LongOpt.REQUIRED_ARGUMENT, null, 'm'));
+		assertEquals('n', g.getopt());
+		assertEquals("n", g.getOptionNameView().toString());
+		assertEquals("42", g.getOptargView().toString());
+		assertEquals(42, g.getOptargInt());
+		assertEquals('r', g.getopt());
+		assertEquals("ratio", g.getOptionNameView().toString());
+		assertEquals(0.25, g.getOptargDouble(), 0.0);
+		assertEquals('m', g.getopt());
+		assertEquals("max", g.getOptionNameView().toString());
+		assertEquals(-9L, g.getOptargLong());
+		assertEquals('v', g.getopt());
+		assertNull(g.getOptargView());
+		assertEquals(-1, g.getopt());
+		assertNull(g.getOptionNameView());
+	}
 }
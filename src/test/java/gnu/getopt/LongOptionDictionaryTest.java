@@ -0,0 +1,93 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+public class LongOptionDictionaryTest {
+
+	private static final LongOpt[] LONGOPTS = {
+			new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+			new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'),
+			new LongOpt("max", LongOpt.REQUIRED_ARGUMENT, null, 1),
+			new LongOpt("maximum", LongOpt.REQUIRED_ARGUMENT, null, 2),
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'H'),
+			new LongOpt("Colour", LongOpt.NO_ARGUMENT, null, 3)
+	};
+
+	@Test
+	public void testLookup() {
+		final LongOptionDictionary dict = new LongOptionDictionary(LongOptionDictionaryTest.LONGOPTS, false);
+		assertEquals(2, dict.lookup("max", 0, 3));
+		assertEquals(0, dict.lookup("--verbose=1", 2, 9));
+		assertEquals(4, dict.lookup("help", 0, 4));
+		assertEquals(3, dict.lookup("maxi", 0, 4));
+		assertEquals(LongOptionIndex.AMBIGUOUS, dict.lookup("ver", 0, 3));
+		assertEquals(0, dict.firstAbbreviated("ver", 0, 3));
+		assertEquals(LongOptionIndex.NOT_FOUND, dict.lookup("colour", 0, 6));
+		assertEquals(LongOptionIndex.NOT_FOUND, dict.lookup("maximums", 0, 8));
+		final LongOptionDictionary folded = new LongOptionDictionary(LongOptionDictionaryTest.LONGOPTS, true);
+		assertEquals(6, folded.lookup("colour", 0, 6));
+		assertEquals(3, folded.lookup("MAXIMUM", 0, 7));
+	}
+
+	@Test
+	public void testManyOptionsMatchIndex() {
+		final LongOpt[] longopts = new LongOpt[5000];
+		for (int i = 0; i < longopts.length; i++) {
+			longopts[i] = new LongOpt("opt" + Integer.toString(i * 7919 % 10000, 36), LongOpt.NO_ARGUMENT, null, i);
+		}
+		final LongOptionIndex index = new LongOptionIndex(longopts, false);
+		final LongOptionDictionary dict = new LongOptionDictionary(longopts, false);
+		for (int i = 0; i < 10000; i++) {
+			final String key = "opt" + Integer.toString(i, 36);
+			for (int len = 0; len <= key.length(); len++) {
+				assertEquals(key.substring(0, len), index.lookup(key, 0, len), dict.lookup(key, 0, len));
+			}
+		}
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(new LongOptionDictionary(LongOptionDictionaryTest.LONGOPTS, true));
+		}
+		final LongOptionDictionary dict;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			dict = (LongOptionDictionary) in.readObject();
+		}
+		assertEquals(7, dict.size());
+		assertEquals("Colour", dict.getLongOptions()[6].getName());
+		assertEquals(LongOpt.REQUIRED_ARGUMENT, dict.getLongOptions()[3].getHasArg());
+		assertEquals(6, dict.lookup("COLOUR", 0, 6));
+		assertEquals(LongOptionIndex.AMBIGUOUS, dict.lookup("he", 0, 2));
+	}
+
+	@Test
+	public void testSchema() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "a")
+				.withLongOptionDictionary(new LongOptionDictionary(LongOptionDictionaryTest.LONGOPTS, false));
+		final Getopt g = schema.parser(new String[] {"--maxi=3", "-a", "--he"});
+		g.setOpterr(false);
+		assertEquals(2, g.getopt());
+		assertEquals("3", g.getOptarg());
+		assertEquals(3, g.getLongind());
+		assertEquals('a', g.getopt());
+		assertEquals('?', g.getopt());
+		assertEquals(-1, g.getopt());
+		assertEquals("3", schema.parse(new String[] {"--maximum", "3"}).getArgument("maximum"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCaseMismatch() {
+		OptionSchema.createMsDos("testprog", "a").withLongOptionDictionary(new LongOptionDictionary(LongOptionDictionaryTest.LONGOPTS, false));
+	}
+}
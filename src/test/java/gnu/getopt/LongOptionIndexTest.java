@@ -0,0 +1,75 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LongOptionIndexTest {
+
+	private static final LongOpt[] LONGOPTS = {
+			new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+			new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'),
+			new LongOpt("max", LongOpt.REQUIRED_ARGUMENT, null, 1),
+			new LongOpt("maximum", LongOpt.REQUIRED_ARGUMENT, null, 2),
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'H'),
+			new LongOpt("Colour", LongOpt.NO_ARGUMENT, null, 3)
+	};
+
+	@Test
+	public void testExactMatchWins() {
+		final LongOptionIndex index = new LongOptionIndex(LongOptionIndexTest.LONGOPTS, false);
+		assertEquals(2, index.lookup("max", 0, 3));
+		assertEquals(0, index.lookup("--verbose=1", 2, 9));
+		// The first of two equal names is the exact match
+		assertEquals(4, index.lookup("help", 0, 4));
+	}
+
+	@Test
+	public void testAbbreviations() {
+		final LongOptionIndex index = new LongOptionIndex(LongOptionIndexTest.LONGOPTS, false);
+		assertEquals(3, index.lookup("maxi", 0, 4));
+		assertEquals(1, index.lookup("versi", 0, 5));
+		assertEquals(LongOptionIndex.AMBIGUOUS, index.lookup("ver", 0, 3));
+		assertEquals(0, index.firstAbbreviated("ver", 0, 3));
+		assertEquals(LongOptionIndex.AMBIGUOUS, index.lookup("he", 0, 2));
+		assertEquals(LongOptionIndex.NOT_FOUND, index.lookup("colour", 0, 6));
+		assertEquals(LongOptionIndex.NOT_FOUND, index.lookup("maximums", 0, 8));
+		assertEquals(LongOptionIndex.NOT_FOUND, index.lookup("x", 0, 1));
+	}
+
+	@Test
+	public void testIgnoreCase() {
+		final LongOptionIndex index = new LongOptionIndex(LongOptionIndexTest.LONGOPTS, true);
+		assertEquals(6, index.lookup("colour", 0, 6));
+		assertEquals(6, index.lookup("CO", 0, 2));
+		assertEquals(3, index.lookup("MAXIMUM", 0, 7));
+	}
+
+	@Test
+	public void testManyOptionsMatchLinearScan() {
+		final LongOpt[] longopts = new LongOpt[500];
+		for (int i = 0; i < longopts.length; i++) {
+			longopts[i] = new LongOpt("opt" + Integer.toString(i * 7919 % 1000, 36), LongOpt.NO_ARGUMENT, null, i);
+		}
+		final LongOptionIndex index = new LongOptionIndex(longopts, false);
+		for (int i = 0; i < 1000; i++) {
+			final String key = "opt" + Integer.toString(i, 36);
+			for (int len = 0; len <= key.length(); len++) {
+				assertEquals(key.substring(0, len), linearScan(longopts, key.substring(0, len)), index.lookup(key, 0, len));
+			}
+		}
+	}
+
+	private static int linearScan(final LongOpt[] longopts, final String key) {
+		int found = LongOptionIndex.NOT_FOUND;
+		boolean ambig = false;
+		for (int i = 0; i < longopts.length; i++) {
+			if (longopts[i].getName().startsWith(key)) {
+				if (longopts[i].getName().equals(key)) { return i; }
+				if (found == LongOptionIndex.NOT_FOUND) { found = i; } else { ambig = true; }
+			}
+		}
+		return ambig ? LongOptionIndex.AMBIGUOUS : found;
+	}
+}
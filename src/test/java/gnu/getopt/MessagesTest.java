@@ -0,0 +1,48 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+
+import org.junit.Test;
+
+public class MessagesTest {
+
+	@Test
+	public void testSharedPerLocale() {
+		assertSame(Messages.get(Locale.US), Messages.get(Locale.US));
+		assertSame(Messages.get(new Locale("fr")), Messages.get(Locale.FRENCH));
+	}
+
+	@Test
+	public void testFormat() {
+		final Messages messages = Messages.get(Locale.US);
+		assertEquals("testprog: option requires an argument -- o", messages.format("getopt.requires2", "testprog", "o"));
+		assertEquals("testprog: option 'help' is ambiguous", messages.format("getopt.ambigious", "testprog", "help"));
+	}
+
+	@Test
+	public void testCompiledBundle() throws IOException {
+		final ResourceBundle bundle = ResourceBundle.getBundle("gnu.getopt.MessagesBundle", Locale.GERMAN);
+		assertTrue(bundle instanceof ListResourceBundle);
+		try (InputStream in = MessagesTest.class.getResourceAsStream("MessagesBundle_de.properties")) {
+			final PropertyResourceBundle properties = new PropertyResourceBundle(in);
+			for (final String key : Collections.list(properties.getKeys())) {
+				if (key.startsWith("getopt.")) { assertEquals(properties.getString(key), bundle.getString(key)); }
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidHasArg() {
+		new LongOpt("help", 3, null, 'h');
+	}
+}
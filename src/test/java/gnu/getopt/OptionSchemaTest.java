@@ -0,0 +1,85 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class OptionSchemaTest {
+
+	private static final LongOpt[] LONGOPTS = {
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+			new LongOpt("outputdir", LongOpt.REQUIRED_ARGUMENT, null, 'o'),
+			new LongOpt("maximum", LongOpt.OPTIONAL_ARGUMENT, null, 2)
+	};
+
+	@Test
+	public void testSchemaIsReusable() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "-:bc::d:hW;", OptionSchemaTest.LONGOPTS);
+		for (int i = 0; i < 3; i++) {
+			final Getopt g = schema.parser(new String[] {"--outputdir=/e/full", "nonOpt1", "-bcX"});
+			assertSame(schema, g.getSchema());
+			assertEquals('o', g.getopt());
+			assertEquals("/e/full", g.getOptarg());
+			assertEquals(1, g.getopt());
+			assertEquals("nonOpt1", g.getOptarg());
+			assertEquals('b', g.getopt());
+			assertEquals('c', g.getopt());
+			assertEquals("X", g.getOptarg());
+			assertEquals(-1, g.getopt());
+		}
+	}
+
+	@Test
+	public void testSchemaMatchesConstructor() {
+		final String[] argv = {"a", "-b", "--max", "c", "-d", "x", "--", "-h"};
+		final Getopt expected = Getopt.createGnu("testprog", argv.clone(), "bc::d:h", OptionSchemaTest.LONGOPTS);
+		final Getopt actual = OptionSchema.createGnu("testprog", "bc::d:h", OptionSchemaTest.LONGOPTS).parser(argv.clone());
+		int c;
+		do {
+			c = expected.getopt();
+			assertEquals(c, actual.getopt());
+			assertEquals(expected.getOptarg(), actual.getOptarg());
+			assertEquals(expected.getOptind(), actual.getOptind());
+		} while (c != -1);
+	}
+
+	@Test
+	public void testOrderingPrefixIsStripped() {
+		assertEquals("bc", OptionSchema.createGnu("testprog", "+bc").getOptstring());
+		assertEquals("bc", OptionSchema.createGnu("testprog", "-bc").getOptstring());
+		assertEquals(" ", OptionSchema.createGnu("testprog", "").getOptstring());
+		assertNull(OptionSchema.createGnu("testprog", "bc").getLongOptions());
+	}
+
+	@Test
+	public void testSetOptstringLeavesSchemaUntouched() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "b");
+		final Getopt g = schema.parser(new String[] {"-c"});
+		g.setOptstring("c");
+		assertEquals('c', g.getopt());
+		assertEquals("b", schema.getOptstring());
+	}
+
+	@Test
+	public void testShortOptionTable() {
+		final ShortOptionTable table = new ShortOptionTable("ab:c::W;\u00e9:", false);
+		assertEquals(ShortOptionTable.NO_ARGUMENT, ShortOptionTable.kind(table.lookup('a')));
+		assertEquals(ShortOptionTable.REQUIRED_ARGUMENT, ShortOptionTable.kind(table.lookup('b')));
+		assertEquals(ShortOptionTable.OPTIONAL_ARGUMENT, ShortOptionTable.kind(table.lookup('c')));
+		assertEquals(ShortOptionTable.LONG_OPTION, ShortOptionTable.kind(table.lookup('W')));
+		assertEquals(ShortOptionTable.REQUIRED_ARGUMENT, ShortOptionTable.kind(table.lookup('\u00e9')));
+		assertEquals(ShortOptionTable.ABSENT, table.lookup('A'));
+		assertEquals(ShortOptionTable.ABSENT, table.lookup('\u00c9'));
+	}
+
+	@Test
+	public void testShortOptionTableIgnoreCase() {
+		final ShortOptionTable table = new ShortOptionTable("aB:\u00e9", true);
+		assertEquals('a', ShortOptionTable.canonical(table.lookup('A')));
+		assertEquals('B', ShortOptionTable.canonical(table.lookup('b')));
+		assertEquals(ShortOptionTable.REQUIRED_ARGUMENT, ShortOptionTable.kind(table.lookup('b')));
+		assertEquals('\u00e9', ShortOptionTable.canonical(table.lookup('\u00c9')));
+	}
+}
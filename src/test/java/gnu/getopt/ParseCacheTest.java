@@ -0,0 +1,30 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ParseCacheTest {
+
+	@Test
+	public void testHitsAndEviction() {
+		final ParseCache cache = new ParseCache(OptionSchema.createGnu("testprog", "ab:"), 2);
+		final String[] argv = {"-a", "-b", "x", "file"};
+		final ParsedArgs first = cache.parse(argv);
+		argv[2] = "y";
+		assertEquals("x", first.getArgument('b'));
+		assertSame(first, cache.parse(new String[] {"-a", "-b", "x", "file"}));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		cache.parse(argv);
+		cache.parse(new String[] {"-a", "-b", "x", "file"});
+		// Least recently used is now {"-a", "-b", "y", "file"}
+		cache.parse(new String[] {"-a"});
+		assertEquals(2, cache.size());
+		assertSame(first, cache.parse(new String[] {"-a", "-b", "x", "file"}));
+		assertNotSame(cache.parse(argv), cache.parse(new String[] {"-a", "-b", "x", "file"}));
+		assertEquals(4, cache.getMissCount());
+	}
+}
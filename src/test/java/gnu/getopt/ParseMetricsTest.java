@@ -0,0 +1,99 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParseMetricsTest {
+
+	private static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:",
+			new LongOpt("verbose", LongOpt.NO_ARGUMENT, null, 'v'),
+			new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'),
+			new LongOpt("output", LongOpt.REQUIRED_ARGUMENT, null, 'o'));
+
+	@Test
+	public void testCounters() {
+		final ParseMetrics metrics = new ParseMetrics();
+		final OptionSchema schema = ParseMetricsTest.SCHEMA.withParseListener(metrics);
+		schema.parse(new String[] {"-a", "file", "--verb", "--out=x", "--ver", "--foo", "-x", "-b"});
+		schema.parse(new String[] {"--verbose"});
+		assertEquals(2, metrics.getParseCount());
+		assertEquals(9, metrics.getArgumentCount());
+		assertEquals(4, metrics.getOptionCount());
+		assertEquals(2, metrics.getAbbreviationCount());
+		assertEquals(1, metrics.getErrorCount(Diagnostic.Kind.AMBIGUOUS));
+		assertEquals(1, metrics.getErrorCount(Diagnostic.Kind.UNRECOGNIZED));
+		assertEquals(1, metrics.getErrorCount(Diagnostic.Kind.INVALID));
+		assertEquals(1, metrics.getErrorCount(Diagnostic.Kind.REQUIRES_ARGUMENT));
+		assertEquals(4, metrics.getErrorCount());
+		long parses = 0;
+		for (final long count : metrics.getDurationHistogram()) { parses += count; }
+		assertEquals(2, parses);
+		metrics.reset();
+		assertEquals(0, metrics.getParseCount());
+		assertEquals(0, metrics.getErrorCount());
+	}
+
+	@Test
+	public void testListener() {
+		final List<String> events = new ArrayList<>();
+		final Getopt g = ParseMetricsTest.SCHEMA.parser(new String[] {"--vers", "-ab", "x", "-c"});
+		g.setOpterr(false);
+		g.setParseListener(new ParseListener() {
+			@Override
+			public void optionParsed(final int option) {
+				events.add("option " + (char)option);
+			}
+
+			@Override
+			public void abbreviationResolved(final int longind) {
+				events.add("abbreviation " + longind);
+			}
+
+			@Override
+			public void errorFound(final Diagnostic.Kind kind) {
+				events.add("error " + kind);
+			}
+
+			@Override
+			public void parseCompleted(final int arguments, final int options, final int errors, final long nanos) {
+				events.add("completed " + arguments + " " + options + " " + errors);
+			}
+		});
+		while (g.getopt() != -1) {
+			// Only the events are of interest
+		}
+		assertEquals(-1, g.getopt());
+		assertEquals(Arrays.asList("abbreviation 1", "option V", "option a", "option b", "error INVALID", "completed 4 3 1"), events);
+	}
+
+	@Test
+	public void testStreaming() {
+		final ParseMetrics metrics = new ParseMetrics();
+		final List<String> operands = new ArrayList<>();
+		final StreamingGetopt g = ParseMetricsTest.SCHEMA.withParseListener(metrics)
+				.streamingParser(Arrays.asList("-a", "file", "--output", "x", "-bc").iterator(), operands::add);
+		while (g.getopt() != -1) {
+			// Only the metrics are of interest
+		}
+		assertEquals(-1, g.getopt());
+		assertArrayEquals(new String[] {"file"}, operands.toArray());
+		assertEquals(1, metrics.getParseCount());
+		assertEquals(5, metrics.getArgumentCount());
+		assertEquals(3, metrics.getOptionCount());
+		assertEquals(0, metrics.getErrorCount());
+	}
+
+	@Test
+	public void testBucket() {
+		assertEquals(0, ParseMetrics.bucket(0));
+		assertEquals(0, ParseMetrics.bucket(1));
+		assertEquals(1, ParseMetrics.bucket(3));
+		assertEquals(10, ParseMetrics.bucket(1024));
+	}
+}
@@ -0,0 +1,88 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParseSessionTest {
+
+	private static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "ab:c::",
+			new LongOpt("output", LongOpt.REQUIRED_ARGUMENT, null, 'o'));
+
+	@Test
+	public void testAppend() {
+		final ParseSession session = new ParseSession(ParseSessionTest.SCHEMA);
+		session.updateLine("-a file1 --output");
+		assertTrue(session.getResult().hasErrors());
+		// "file1" is skipped while looking for "--output", so the scan resumes after "-a"
+		final ParsedArgs args = session.updateLine("-a file1 --output x");
+		assertEquals(1, session.getReparsedFrom());
+		assertFalse(args.hasErrors());
+		assertEquals("x", args.getArgument("output"));
+		assertArrayEquals(new String[] {"file1"}, args.getOperands());
+		session.updateLine("-a file1 --output x -b 'y z' file2");
+		assertEquals(1, session.getReparsedFrom());
+		assertEquals("y z", session.getResult().getArgument('b'));
+		assertArrayEquals(new String[] {"file1", "file2"}, session.getResult().getOperands());
+	}
+
+	@Test
+	public void testEdit() {
+		final ParseSession session = new ParseSession(ParseSessionTest.SCHEMA);
+		final String[] argv = new String[200];
+		for (int i = 0; i < argv.length; i += 2) {
+			argv[i] = "-b";
+			argv[i + 1] = Integer.toString(i);
+		}
+		session.update(argv);
+		final ParsedArgs unchanged = session.getResult();
+		assertSame(unchanged, session.update(argv.clone()));
+		argv[197] = "x";
+		final ParsedArgs edited = session.update(argv);
+		assertEquals(196, session.getReparsedFrom());
+		assertEquals(100, edited.count('b'));
+		assertEquals("x", edited.optargAt(98));
+		argv[10] = "-ab";
+		final ParsedArgs front = session.update(argv);
+		assertEquals(8, session.getReparsedFrom());
+		assertEquals(101, front.size());
+		assertEquals('a', front.optionAt(5));
+		assertArrayEquals(ParseSessionTest.SCHEMA.parse(argv).getOperands(), front.getOperands());
+	}
+
+	@Test
+	public void testShorten() {
+		final ParseSession session = new ParseSession(ParseSessionTest.SCHEMA);
+		session.updateLine("x -a -- -b");
+		final ParsedArgs args = session.updateLine("x -a -");
+		assertFalse(args.hasErrors());
+		assertEquals(1, args.size());
+		assertArrayEquals(new String[] {"x", "-"}, args.getOperands());
+		assertEquals(0, session.updateLine("").size());
+	}
+
+	@Test
+	public void testListener() {
+		final List<String> events = new ArrayList<>();
+		final ParseSession session = new ParseSession(ParseSessionTest.SCHEMA.withParseListener(new ParseListener() {
+			@Override
+			public void parseCompleted(final int arguments, final int options, final int errors, final long nanos) {
+				events.add("completed " + arguments + " " + options + " " + errors);
+			}
+		}));
+		session.update(new String[] {"-a", "-b", "x", "-c"});
+		session.update(new String[] {"-a", "-b", "x", "-c", "-a"});
+		session.update(new String[] {"-a", "-b", "x", "-c", "-a", "-x"});
+		session.update(new String[] {"-a", "-b", "x", "-c", "-a", "-c"});
+		// The counts are those of the whole line, as OptionSchema.parse() would report them
+		assertEquals(Arrays.asList("completed 4 3 0", "completed 5 4 0", "completed 6 4 1", "completed 6 5 0"), events);
+	}
+}
@@ -0,0 +1,106 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ParsedArgsTest {
+
+	private static final OptionSchema SCHEMA = OptionSchema.createGnu("testprog", "bc::d:h",
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+			new LongOpt("outputdir", LongOpt.REQUIRED_ARGUMENT, null, 'o'),
+			new LongOpt("maximum", LongOpt.OPTIONAL_ARGUMENT, null, 2));
+
+	@Test
+	public void testParse() {
+		final String[] argv = {"file1", "-b", "--outputdir=/tmp", "-dx", "file2", "--max=3", "-d", "y", "--", "-h"};
+		final String[] copy = argv.clone();
+		final ParsedArgs args = ParsedArgsTest.SCHEMA.parse(argv);
+		assertArrayEquals(copy, argv);
+		assertEquals(5, args.size());
+		assertEquals('b', args.optionAt(0));
+		assertEquals(1, args.argvIndexAt(0));
+		assertEquals('o', args.optionAt(1));
+		assertEquals(1, args.longindAt(1));
+		assertEquals(ParsedArgs.NO_LONGIND, args.longindAt(2));
+		assertEquals(2, args.optionAt(3));
+		assertEquals(5, args.argvIndexAt(3));
+		assertTrue(args.has('b'));
+		assertFalse(args.has('h'));
+		assertEquals("/tmp", args.getArgument("outputdir"));
+		assertEquals("/tmp", args.getArgument('o'));
+		assertEquals("3", args.getArgument("maximum"));
+		assertEquals("y", args.getArgument('d'));
+		assertArrayEquals(new String[] {"x", "y"}, args.getArguments('d'));
+		assertEquals(2, args.count('d'));
+		assertEquals(0, args.count("help"));
+		assertNull(args.getArgument("help"));
+		assertArrayEquals(new String[] {"file1", "file2", "-h"}, args.getOperands());
+		assertFalse(args.hasErrors());
+	}
+
+	@Test
+	public void testErrorsAreCollected() {
+		final ParsedArgs args = ParsedArgsTest.SCHEMA.parse(new String[] {"-x", "--help=yes", "-h", "-d"});
+		assertEquals(4, args.size());
+		assertTrue(args.isErrorAt(0));
+		assertTrue(args.isErrorAt(1));
+		assertFalse(args.isErrorAt(2));
+		assertTrue(args.isErrorAt(3));
+		assertEquals(3, args.getDiagnostics().size());
+		assertEquals(Diagnostic.Kind.REQUIRES_ARGUMENT, args.getDiagnostics().get(2).getKind());
+		assertEquals(1, args.count('h'));
+		assertFalse(args.has('d'));
+	}
+
+	@Test
+	public void testReturnInOrder() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "-b");
+		final ParsedArgs args = schema.parse(new String[] {"a", "-b", "c", "--", "d"});
+		assertEquals(3, args.size());
+		assertEquals(1, args.optionAt(0));
+		assertEquals("a", args.optargAt(0));
+		assertEquals('b', args.optionAt(1));
+		assertArrayEquals(new String[] {"a", "c", "d"}, args.getOperands());
+	}
+
+	@Test
+	public void testValueTypes() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "n:t:",
+				new LongOpt("ratio", LongOpt.REQUIRED_ARGUMENT, null, 'r'),
+				new LongOpt("verbose", LongOpt.OPTIONAL_ARGUMENT, null, 'v'),
+				new LongOpt("dir", LongOpt.REQUIRED_ARGUMENT, null, 'd'))
+				.withValueType('n', ValueType.INT)
+				.withValueType('t', ValueType.DURATION)
+				.withValueType('r', ValueType.DOUBLE)
+				.withValueType('v', ValueType.BOOLEAN)
+				.withValueType('d', ValueType.PATH);
+		final ParsedArgs args = schema.parse(new String[] {"-n", "1", "-n7", "--ratio=0.5", "-t", "2s", "--verbose", "--dir=/tmp"});
+		assertFalse(args.hasErrors());
+		assertEquals(7, args.getInt('n', 0));
+		assertEquals(2000000000L, args.getLong('t', 0));
+		assertEquals(2L, args.getDuration('t').getSeconds());
+		assertEquals(0.5, args.getDouble("ratio", 0), 0.0);
+		assertTrue(args.getBoolean("verbose", false));
+		assertEquals("/tmp", args.getPath('d').toString());
+		assertEquals(-1, schema.parse(new String[0]).getInt('n', -1));
+	}
+
+	@Test
+	public void testInvalidValue() {
+		final OptionSchema schema = OptionSchema.createGnu("testprog", "n:", new LongOpt("count", LongOpt.REQUIRED_ARGUMENT, null, 'n'))
+				.withValueType('n', ValueType.INT);
+		final ParsedArgs args = schema.parse(new String[] {"-n", "3", "--count=x"});
+		assertEquals(1, args.getDiagnostics().size());
+		final Diagnostic diagnostic = args.getDiagnostics().get(0);
+		assertEquals(Diagnostic.Kind.INVALID_VALUE, diagnostic.getKind());
+		assertEquals(2, diagnostic.getArgvIndex());
+		assertEquals("count", diagnostic.getOption());
+		assertTrue(args.isErrorAt(1));
+		assertEquals(3, args.getInt('n', 0));
+	}
+}
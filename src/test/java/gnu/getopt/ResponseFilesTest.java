@@ -0,0 +1,82 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseFilesTest {
+
+	private Path folder;
+
+	@Before
+	public void createFolder() throws IOException {
+		this.folder = Files.createTempDirectory("getopt");
+	}
+
+	@After
+	public void deleteFolder() throws IOException {
+		try (final DirectoryStream<Path> files = Files.newDirectoryStream(this.folder)) {
+			for (final Path file : files) { Files.delete(file); }
+		}
+		Files.delete(this.folder);
+	}
+
+	@Test
+	public void testQuoting() throws IOException {
+		final Path file = write("args", "-a 'single quoted' \"double \\\"quoted\\\"\"\n\tback\\ slash '' \u00e9t\u00e9\r\n");
+		assertEquals(Arrays.asList("-a", "single quoted", "double \"quoted\"", "back slash", "", "\u00e9t\u00e9"),
+				toList(ResponseFiles.tokenize(file, StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testExpand() throws IOException {
+		final Path inner = write("inner", "-c file2");
+		final Path outer = write("outer", "-b @" + inner + " @missing");
+		final Iterator<String> args = ResponseFiles.expand(Arrays.asList("-a", "@" + outer, "file1", "@").iterator(), StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList("-a", "-b", "-c", "file2", "@missing", "file1", "@"), toList(args));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRecursion() throws IOException {
+		final Path file = this.folder.resolve("self");
+		write("self", "-a @" + file);
+		toList(ResponseFiles.expand(Arrays.asList("@" + file).iterator()));
+	}
+
+	@Test
+	public void testLargeFile() throws IOException {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100000; i++) { text.append("-b \"\u00e9 ").append(i).append("\"\n"); }
+		final Path file = write("large", text.toString());
+		final List<String> operands = new ArrayList<>();
+		final StreamingGetopt g = OptionSchema.createGnu("testprog", "b").streamingParser(
+				ResponseFiles.expand(Arrays.asList("@" + file).iterator(), StandardCharsets.UTF_8), operands::add);
+		int options = 0;
+		while (g.getopt() != -1) { options++; }
+		assertEquals(100000, options);
+		assertEquals(100000, operands.size());
+		assertEquals("\u00e9 99999", operands.get(99999));
+	}
+
+	private Path write(final String name, final String content) throws IOException {
+		return Files.write(this.folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<String> toList(final Iterator<String> args) {
+		final List<String> result = new ArrayList<>();
+		args.forEachRemaining(result::add);
+		return result;
+	}
+}
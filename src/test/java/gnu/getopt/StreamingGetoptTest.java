@@ -0,0 +1,77 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StreamingGetoptTest {
+
+	private static final LongOpt[] LONGOPTS = {
+			new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
+			new LongOpt("outputdir", LongOpt.REQUIRED_ARGUMENT, null, 'o')
+	};
+
+	private static final String[] ARGV = {"file1", "-bcX", "--outputdir", "/tmp", "file2", "-Wh", "-d", "--", "-h"};
+
+	@Test
+	public void testMatchesGetopt() {
+		for (final String optstring : new String[] {"bc::dW;", "+bc::dW;", "-bc::dW;"}) {
+			final OptionSchema schema = OptionSchema.createGnu("testprog", optstring, StreamingGetoptTest.LONGOPTS);
+			final String[] argv = StreamingGetoptTest.ARGV.clone();
+			final Getopt expected = schema.parser(argv);
+			final List<String> operands = new ArrayList<>();
+			final StreamingGetopt actual = schema.streamingParser(Arrays.asList(StreamingGetoptTest.ARGV).iterator(), operands::add);
+			int c;
+			do {
+				c = expected.getopt();
+				assertEquals(c, actual.getopt());
+				assertEquals(expected.getOptarg(), actual.getOptarg());
+				assertEquals(expected.getLongind(), actual.getLongind());
+			} while (c != -1);
+			assertEquals(Arrays.asList(argv).subList(expected.getOptind(), argv.length), operands);
+			assertEquals(argv.length, actual.getPosition());
+		}
+	}
+
+	@Test
+	public void testDiagnosticPosition() {
+		final List<Diagnostic> diagnostics = new ArrayList<>();
+		final StreamingGetopt g = OptionSchema.createGnu("testprog", "b").streamingParser(
+				Arrays.asList("a", "b", "-b", "c", "-x").iterator(), operand -> { });
+		g.setDiagnosticSink(diagnostics::add);
+		assertEquals('b', g.getopt());
+		assertEquals('?', g.getopt());
+		assertEquals(-1, g.getopt());
+		assertEquals(1, diagnostics.size());
+		assertEquals(4, diagnostics.get(0).getArgvIndex());
+	}
+
+	@Test
+	public void testLargeStream() {
+		final int size = 1000000;
+		final Iterator<String> args = new Iterator<String>() {
+			private int i;
+
+			@Override
+			public boolean hasNext() {
+				return this.i < size;
+			}
+
+			@Override
+			public String next() {
+				return this.i++ % 2 == 0 ? "file" : "-b";
+			}
+		};
+		final int[] operands = new int[1];
+		final StreamingGetopt g = OptionSchema.createGnu("testprog", "b").streamingParser(args, operand -> operands[0]++);
+		int options = 0;
+		while (g.getopt() != -1) { options++; }
+		assertEquals(size / 2, options);
+		assertEquals(size / 2, operands[0]);
+	}
+}
@@ -0,0 +1,58 @@
+package gnu.getopt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class ValueTypeTest {
+
+	private enum Mode {
+		FAST, DRY_RUN
+	}
+
+	@Test
+	public void testDuration() {
+		assertEquals(1500000000L, ValueType.DURATION.toBits("1500ms"));
+		assertEquals(90000000000L, ValueType.DURATION.toBits("1.5m"));
+		assertEquals(90000000000L, ValueType.DURATION.toBits("PT1M30S"));
+		assertEquals(3000000000L, ValueType.DURATION.toBits("3"));
+		assertEquals(86400000000000L, ValueType.DURATION.toBits("1d"));
+		assertInvalid(ValueType.DURATION, "1 s", "s", "10y", "999999999999d");
+	}
+
+	@Test
+	public void testSize() {
+		assertEquals(512L, ValueType.SIZE.toBits("512"));
+		assertEquals(512L, ValueType.SIZE.toBits("512B"));
+		assertEquals(4096L, ValueType.SIZE.toBits("4k"));
+		assertEquals(4096L, ValueType.SIZE.toBits("4KiB"));
+		assertEquals(4000L, ValueType.SIZE.toBits("4KB"));
+		assertEquals(1536L * 1024 * 1024, ValueType.SIZE.toBits("1.5G"));
+		assertInvalid(ValueType.SIZE, "", "4X", "4KiBB", "16E");
+	}
+
+	@Test
+	public void testOthers() {
+		assertEquals(1L, ValueType.BOOLEAN.toBits("Yes"));
+		assertEquals(0L, ValueType.BOOLEAN.toBits("off"));
+		assertEquals(1L, ValueType.BOOLEAN.toBits(null));
+		assertEquals(1L, ValueType.enumeration(Mode.class).toBits("dry-run"));
+		assertEquals(0L, ValueType.enumeration(Mode.class).toBits("Fast"));
+		assertEquals(Double.doubleToRawLongBits(0.5), ValueType.DOUBLE.toBits("0.5"));
+		assertInvalid(ValueType.BOOLEAN, "maybe");
+		assertInvalid(ValueType.enumeration(Mode.class), "slow");
+		assertInvalid(ValueType.INT, "2147483648");
+	}
+
+	private static void assertInvalid(final ValueType type, final String... values) {
+		for (final String value : values) {
+			try {
+				type.toBits(value);
+				fail(value);
+			} catch (final IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+}